@@ -0,0 +1,9 @@
+package com.distributed.coordinator;
+
+/** Per-node summary used by {@link Coordinator#findKthFrequentApproximate}. */
+public enum Approximation {
+  /** Count-Min Sketch plus heavy-hitter candidates; probabilistic bounds. */
+  COUNT_MIN_SKETCH,
+  /** Space-Saving counters merged as mergeable summaries; deterministic bounds. */
+  SPACE_SAVING
+}
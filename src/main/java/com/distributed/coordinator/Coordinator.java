@@ -1,30 +1,199 @@
 package com.distributed.coordinator;
 
 import com.distributed.model.DataPartition;
+import com.distributed.model.DelimitedText;
+import com.distributed.model.FileRange;
+import com.distributed.model.FrequencyEstimate;
+import com.distributed.model.FrequencyPair;
+import com.distributed.model.InputFormat;
+import com.distributed.model.IntSlice;
+import com.distributed.model.MappedIntFile;
 import com.distributed.model.ProcessingResult;
+import com.distributed.model.SketchResult;
+import com.distributed.model.SummaryResult;
+import com.distributed.model.WindowSpec;
+import com.distributed.node.ExactCountingNode;
 import com.distributed.node.ProcessingNode;
+import com.distributed.node.RemoteProcessingNode;
+import com.distributed.node.TopKParticipant;
+import com.distributed.util.CountMinSketch;
+import com.distributed.util.FrequencyRankIndex;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.IntLongConsumer;
+import com.distributed.util.IntLongCountTable;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.MergingCursor;
+import com.distributed.util.SpaceSavingSummary;
+import com.distributed.util.StripedCountTable;
+import com.distributed.util.TopKSelector;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public class Coordinator {
+public class Coordinator implements AutoCloseable {
+  private static final int APPROXIMATE_CANDIDATES_PER_K = 4;
+  private static final int MIN_APPROXIMATE_CANDIDATES = 32;
+  private static final int MERGE_STRIPES = 64;
+
   private final int numNodes;
   private final long memoryThresholdPerNode;
-  private final List<ProcessingNode> nodes;
+  private final PartitionStrategy partitionStrategy;
+  private final Approximation approximation;
+  private final int summaryCounters;
+  private final MergeProtocol mergeProtocol;
+  private final int aggregationFanIn;
+  private final LocalityPlacement placement;
+  private final long workUnitBytes;
+  private final ResilientDispatcher dispatcher;
+  private final DatasetCache datasets;
+  private final ForkJoinPool countingPool;
+  private final ExecutorService executor;
+  private final List<ExactCountingNode> nodes;
+  // The same nodes when they run in process; empty with remote nodes, which only count exactly
+  private final List<ProcessingNode> localNodes;
+  // The same nodes when they run on other machines; empty with in-process nodes
+  private final List<RemoteProcessingNode> remoteNodes;
 
   public Coordinator(int numNodes, long memoryThresholdPerNode) {
-    this.numNodes = numNodes;
-    this.memoryThresholdPerNode = memoryThresholdPerNode;
+    this(
+        CoordinatorConfig.builder()
+            .numNodes(numNodes)
+            .memoryThresholdPerNode(memoryThresholdPerNode)
+            .build());
+  }
+
+  public Coordinator(CoordinatorConfig config) {
+    List<InetSocketAddress> remoteAddresses = config.getRemoteNodes();
+    this.numNodes = remoteAddresses.isEmpty() ? config.getNumNodes() : remoteAddresses.size();
+    this.memoryThresholdPerNode = config.getMemoryThresholdPerNode();
+    this.partitionStrategy = config.getPartitionStrategy();
+    this.approximation = config.getApproximation();
+    this.summaryCounters = config.getSummaryCounters();
+    if (config.getAggregationFanIn() < 0 || config.getAggregationFanIn() == 1) {
+      throw new IllegalArgumentException("Aggregation fan-in must be 0 or at least 2");
+    }
+    if (!config.getNodeDataRoots().isEmpty() && config.getNodeDataRoots().size() != numNodes) {
+      throw new IllegalArgumentException("Node data roots must be given for every node or none");
+    }
+    if (!config.getNodeDataRoots().isEmpty() && !remoteAddresses.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Remote nodes read files from their own data roots, set when each server starts");
+    }
+    this.placement = new LocalityPlacement(config.getNodeDataRoots(), numNodes);
+    if (config.getWorkUnitBytes() < 0
+        || (config.getWorkUnitBytes() > 0 && !remoteAddresses.isEmpty())) {
+      throw new IllegalArgumentException(
+          "Work unit size must not be negative, and work stealing needs in-process nodes");
+    }
+    this.workUnitBytes = config.getWorkUnitBytes();
+    if (config.getNodeTimeoutMs() < 0
+        || config.getMaxAttempts() < 1
+        || config.getSpeculativeAfterMs() < 0) {
+      throw new IllegalArgumentException(
+          "Timeouts must not be negative and partitions need at least one attempt");
+    }
+    this.mergeProtocol = config.getMergeProtocol();
+    this.aggregationFanIn = config.getAggregationFanIn();
+    int threads =
+        config.getExecutorThreads() > 0
+            ? config.getExecutorThreads()
+            : Runtime.getRuntime().availableProcessors();
+    this.countingPool = new ForkJoinPool(threads, Coordinator::newWorker, null, false);
+    // A fork/join pool is itself a bounded platform pool, so CPU-bound nodes share it
+    this.executor =
+        config.getNodeExecutor() == NodeExecutor.VIRTUAL_THREADS
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kth-node-", 0).factory())
+            : countingPool;
+    int splitThreshold =
+        config.getSplitThreshold() > 0
+            ? config.getSplitThreshold()
+            : ProcessingNode.DEFAULT_SPLIT_THRESHOLD;
+    this.localNodes =
+        remoteAddresses.isEmpty()
+            ? IntStream.range(0, numNodes)
+                .mapToObj(
+                    i ->
+                        new ProcessingNode(
+                            i,
+                            memoryThresholdPerNode,
+                            null,
+                            executor,
+                            countingPool,
+                            splitThreshold))
+                .toList()
+            : List.of();
+    this.remoteNodes =
+        IntStream.range(0, remoteAddresses.size())
+            .mapToObj(
+                i ->
+                    new RemoteProcessingNode(
+                        i,
+                        remoteAddresses.get(i),
+                        memoryThresholdPerNode,
+                        null,
+                        executor,
+                        config.getResultCodec(),
+                        config.getNodeTimeoutMs()))
+            .toList();
     this.nodes =
-        IntStream.range(0, numNodes)
-            .mapToObj(i -> new ProcessingNode(i, memoryThresholdPerNode))
-            .collect(Collectors.toList());
+        List.<ExactCountingNode>copyOf(remoteAddresses.isEmpty() ? localNodes : remoteNodes);
+    this.dispatcher =
+        new ResilientDispatcher(
+            nodes,
+            new NodeHealth(numNodes),
+            config.getNodeTimeoutMs(),
+            config.getMaxAttempts(),
+            config.getSpeculativeAfterMs());
+    if (config.getDatasetCacheBytes() < 0) {
+      throw new IllegalArgumentException("Dataset cache size must not be negative");
+    }
+    this.datasets = new DatasetCache(config.getDatasetCacheBytes());
+  }
+
+  // Fork/join workers are daemon threads, so unclosed coordinators do not keep the JVM alive
+  private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+    ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    worker.setName("kth-node-" + worker.getPoolIndex());
+    return worker;
   }
 
   public int findKthFrequent(List<Integer> data, int k) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    return findKthFrequent(IntSlice.copyOf(data), k);
+  }
+
+  public int findKthFrequent(int[] data, int k) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    return findKthFrequent(IntSlice.of(data), k);
+  }
+
+  public int findKthFrequent(IntBuffer data, int k) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    return findKthFrequent(IntSlice.of(data), k);
+  }
+
+  public int findKthFrequent(IntSlice data, int k) {
     if (data == null) {
       throw new IllegalArgumentException("Input data cannot be null");
     }
@@ -37,76 +206,513 @@ public class Coordinator {
 
     long startTime = System.currentTimeMillis();
     log.info("Starting distributed processing for K={} with {} nodes", k, numNodes);
-    log.info("Input data: {}", data);
+    log.info("Input data: {} elements", data.size());
 
     try {
-      // Step 1: Distribute data using round-robin
-      List<List<Integer>> partitions = new ArrayList<>();
-      for (int i = 0; i < numNodes; i++) {
-        partitions.add(new ArrayList<>());
-      }
+      // Step 1: Distribute data using the configured partitioning strategy
+      List<DataPartition> dataPartitions = partitionStrategy.partition(data, numNodes);
+
+      // With disjoint keys a node's local top-k already contains every key that can reach the
+      // global top-k, so nodes only ship those candidates
+      int candidateLimit = partitionStrategy.disjointKeys() ? k : 0;
+      return selectKth(dataPartitions, k, candidateLimit, startTime);
+
+    } catch (Exception e) {
+      log.error("Error processing data", e);
+      throw new RuntimeException("Failed to process data", e);
+    }
+  }
+
+  public List<FrequencyPair> findTopFrequent(int[] data, int n) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    return findTopFrequent(IntSlice.of(data), n);
+  }
+
+  /**
+   * The {@code n} most frequent values with their counts, most frequent first, from one
+   * distribution, count and selection pass. Fewer pairs are returned when there are fewer distinct
+   * values.
+   */
+  public List<FrequencyPair> findTopFrequent(IntSlice data, int n) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    if (n <= 0) {
+      throw new IllegalArgumentException("N must be positive");
+    }
+    if (data.isEmpty()) {
+      return List.of();
+    }
+
+    long startTime = System.currentTimeMillis();
+    log.info("Starting distributed processing for the top {} with {} nodes", n, numNodes);
+    log.info("Input data: {} elements", data.size());
+
+    try {
+      List<DataPartition> dataPartitions = partitionStrategy.partition(data, numNodes);
+      int candidateLimit = partitionStrategy.disjointKeys() ? n : 0;
+      List<FrequencyPair> top = select(dataPartitions, n, candidateLimit).toSortedList();
+      log.info(
+          "Processing completed in {}ms, found the top {}",
+          System.currentTimeMillis() - startTime,
+          top.size());
+      return top;
+
+    } catch (Exception e) {
+      log.error("Error processing data", e);
+      throw new RuntimeException("Failed to process data", e);
+    }
+  }
+
+  public int[] findKthFrequent(int[] data, int[] ks) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    return findKthFrequent(IntSlice.of(data), ks);
+  }
+
+  /**
+   * Answers several k at once: entry i is the {@code ks[i]}th most frequent value, or -1 when there
+   * are fewer distinct values. The data is distributed, counted and ranked once, for the largest k.
+   */
+  public int[] findKthFrequent(IntSlice data, int[] ks) {
+    return kthOfTop(findTopFrequent(data, maxK(ks)), ks);
+  }
+
+  /**
+   * Registers {@code data} under {@code id}, replacing any earlier version. Queries by id are
+   * answered from a cached ranking of the dataset until it is registered under a new version, so
+   * the data must not change while its version stays the same.
+   */
+  public void registerDataset(String id, long version, IntSlice data) {
+    if (id == null || data == null) {
+      throw new IllegalArgumentException("Dataset id and data cannot be null");
+    }
+    datasets.register(id, version, data);
+  }
+
+  public void registerDataset(String id, long version, int[] data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Dataset id and data cannot be null");
+    }
+    registerDataset(id, version, IntSlice.of(data));
+  }
+
+  public void unregisterDataset(String id) {
+    datasets.unregister(id);
+  }
+
+  public int findKthFrequent(String datasetId, int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    FrequencyPair kth = ranking(datasetId).kth(k);
+    return kth == null ? -1 : kth.getNumber();
+  }
+
+  public int[] findKthFrequent(String datasetId, int[] ks) {
+    validateKs(ks);
+    RankedDataset ranking = ranking(datasetId);
+    int[] answers = new int[ks.length];
+    for (int i = 0; i < ks.length; i++) {
+      FrequencyPair kth = ranking.kth(ks[i]);
+      answers[i] = kth == null ? -1 : kth.getNumber();
+    }
+    return answers;
+  }
+
+  public List<FrequencyPair> findTopFrequent(String datasetId, int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("N must be positive");
+    }
+    return ranking(datasetId).top(n);
+  }
+
+  /** The values ranked {@code fromRank} to {@code toRank} (1-based, inclusive) in a dataset. */
+  public List<FrequencyPair> findFrequentRange(String datasetId, int fromRank, int toRank) {
+    if (fromRank <= 0 || toRank < fromRank) {
+      throw new IllegalArgumentException("Ranks must be positive and in ascending order");
+    }
+    return ranking(datasetId).range(fromRank, toRank);
+  }
+
+  /** Frequency rank (1-based) of {@code value} in a dataset, or -1 if it does not occur. */
+  public int findRank(String datasetId, int value) {
+    return ranking(datasetId).rankOf(value);
+  }
+
+  /** Hit and miss counts of the dataset cache. */
+  CacheStats datasetCacheStats() {
+    return datasets.stats();
+  }
+
+  /**
+   * The rank index of a registered dataset. The first query of a version counts the full dataset
+   * and caches an index over its merged counts; later queries are served from the index without
+   * touching the nodes.
+   */
+  private RankedDataset ranking(String datasetId) {
+    if (datasetId == null) {
+      throw new IllegalArgumentException("Dataset id cannot be null");
+    }
+    try {
+      return datasets.get(datasetId, this::rank);
+    } catch (IOException e) {
+      log.error("Error processing dataset {}", datasetId, e);
+      throw new RuntimeException("Failed to process data", e);
+    }
+  }
 
-      // Round-robin distribution
-      for (int i = 0; i < data.size(); i++) {
-        partitions.get(i % numNodes).add(data.get(i));
+  /** Counts a dataset in full into a rank index. */
+  private RankedDataset rank(IntSlice data) throws IOException {
+    FrequencyRankIndex index = new FrequencyRankIndex();
+    if (!data.isEmpty()) {
+      // Later queries may ask for any rank, so nodes always report their full counts
+      mergeFullCounts(partitionStrategy.partition(data, numNodes), 0, index::set);
+    }
+    return RankedDataset.of(index, datasets.maxBytes());
+  }
+
+  private static void validateKs(int[] ks) {
+    if (ks == null || ks.length == 0) {
+      throw new IllegalArgumentException("At least one K is required");
+    }
+    for (int k : ks) {
+      if (k <= 0) {
+        throw new IllegalArgumentException("K must be positive");
       }
+    }
+  }
+
+  private static int maxK(int[] ks) {
+    validateKs(ks);
+    return Arrays.stream(ks).max().getAsInt();
+  }
+
+  // Entry i is the ks[i]th value of the ranked list, or -1 beyond its end
+  private static int[] kthOfTop(List<FrequencyPair> top, int[] ks) {
+    int[] answers = new int[ks.length];
+    for (int i = 0; i < ks.length; i++) {
+      answers[i] = ks[i] <= top.size() ? top.get(ks[i] - 1).getNumber() : -1;
+    }
+    return answers;
+  }
+
+  public int findKthFrequent(Path file, int k) {
+    return findKthFrequent(file, InputFormat.INT32_LE, k);
+  }
+
+  /**
+   * Finds the kth most frequent value in a file. The file is memory-mapped and split into
+   * contiguous ranges that nodes count in place, parsing text ranges themselves, so the input is
+   * never copied onto the heap; the configured partitioning strategy is not used.
+   */
+  public int findKthFrequent(Path file, InputFormat format, int k) {
+    if (file == null) {
+      throw new IllegalArgumentException("Input file and format cannot be null");
+    }
+    return findKthFrequent(List.of(file), format, k);
+  }
+
+  /**
+   * Finds the kth most frequent value across a set of files. Files are split into ranges of about
+   * 1/numNodes of the total size, and each range is placed on the least loaded node whose data root
+   * holds its file, so nodes only map and read their own local data. Remote nodes are asked which
+   * files they hold under their data roots, and map their ranges themselves; the coordinator never
+   * opens the files.
+   */
+  public int findKthFrequent(List<Path> files, InputFormat format, int k) {
+    if (files == null || format == null || files.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("Input files and format cannot be null");
+    }
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    List<InputFile> inputs = files.stream().map(this::locate).toList();
+
+    long startTime = System.currentTimeMillis();
+    log.info(
+        "Starting distributed processing of {} files ({}) for K={} with {} nodes",
+        files.size(),
+        format,
+        k,
+        numNodes);
+
+    try {
+      long totalBytes = inputs.stream().mapToLong(InputFile::size).sum();
+      long rangeBytes = Math.max(1, Math.ceilDiv(totalBytes, numNodes));
 
-      // Create data partitions
       List<DataPartition> dataPartitions = new ArrayList<>();
-      for (int i = 0; i < numNodes; i++) {
+      for (InputFile input : inputs) {
+        int parts = (int) Math.max(1, Math.ceilDiv(input.size(), rangeBytes));
+        for (DataPartition partition : split(input, format, parts)) {
+          partition.setEligibleNodes(input.holders());
+          dataPartitions.add(partition);
+        }
+      }
+
+      long[] sizes = dataPartitions.stream().mapToLong(DataPartition::byteSize).toArray();
+      int[][] eligible =
+          dataPartitions.stream().map(DataPartition::getEligibleNodes).toArray(int[][]::new);
+      int[] assignment = placement.assign(sizes, eligible);
+      for (int i = 0; i < dataPartitions.size(); i++) {
+        dataPartitions.get(i).setNodeId(assignment[i]);
+      }
+      return selectKth(dataPartitions, k, 0, startTime);
+
+    } catch (Exception e) {
+      log.error("Error processing data", e);
+      throw new RuntimeException("Failed to process data", e);
+    }
+  }
+
+  /** An input file, its size and the nodes that hold it. */
+  private record InputFile(Path path, long size, int[] holders) {}
+
+  private InputFile locate(Path file) {
+    if (remoteNodes.isEmpty()) {
+      try {
+        return new InputFile(file, Files.size(file), placement.eligibleNodes(file));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    // A node that cannot answer is treated as not holding the file
+    List<CompletableFuture<Long>> sizes =
+        remoteNodes.stream()
+            .map(
+                node ->
+                    node.fileSize(file)
+                        .exceptionally(
+                            e -> {
+                              log.warn("Node could not report the size of {}", file, e);
+                              return -1L;
+                            }))
+            .toList();
+    int[] holders = IntStream.range(0, numNodes).filter(i -> sizes.get(i).join() >= 0).toArray();
+    if (holders.length == 0) {
+      throw new IllegalArgumentException("No node has local access to " + file);
+    }
+    long size = sizes.get(holders[0]).join();
+    for (int node : holders) {
+      if (sizes.get(node).join() != size) {
+        throw new IllegalArgumentException("Nodes hold different copies of " + file);
+      }
+    }
+    return new InputFile(file, size, holders);
+  }
+
+  /** Maps the file into ranges here, or names the ranges for remote nodes to map. */
+  private List<DataPartition> split(InputFile input, InputFormat format, int parts)
+      throws IOException {
+    List<DataPartition> partitions = new ArrayList<>();
+    if (!remoteNodes.isEmpty()) {
+      for (FileRange range :
+          FileRange.split(input.path().toString(), input.size(), format, parts)) {
+        DataPartition partition = new DataPartition();
+        partition.setFileRange(range);
+        partitions.add(partition);
+      }
+    } else if (format == InputFormat.DELIMITED_TEXT) {
+      for (DelimitedText text : DelimitedText.split(input.path(), parts)) {
+        DataPartition partition = new DataPartition();
+        partition.setText(text);
+        partitions.add(partition);
+      }
+    } else {
+      for (IntSlice range : MappedIntFile.split(input.path(), parts)) {
         DataPartition partition = new DataPartition();
-        partition.setNodeId(i);
-        partition.setData(partitions.get(i));
-        dataPartitions.add(partition);
-        log.info("Node {} received data: {}", i, partition.getData());
-      }
-
-      // Step 2: Process in parallel
-      List<CompletableFuture<ProcessingResult>> futures = new ArrayList<>();
-      for (int i = 0; i < numNodes; i++) {
-        futures.add(nodes.get(i).processData(dataPartitions.get(i)));
-      }
-
-      // Step 3: Wait for all results and merge
-      Map<Integer, Integer> globalFrequencies = new HashMap<>();
-      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-          .thenAccept(
-              v -> {
-                futures.stream()
-                    .map(CompletableFuture::join)
-                    .forEach(
+        partition.setData(range);
+        partitions.add(partition);
+      }
+    }
+    return partitions;
+  }
+
+  private int selectKth(
+      List<DataPartition> dataPartitions, int k, int candidateLimit, long startTime)
+      throws IOException {
+    for (DataPartition partition : dataPartitions) {
+      log.info("Node {} received {}", partition.getNodeId(), partition.describeSize());
+    }
+
+    TopKSelector selector = select(dataPartitions, k, candidateLimit);
+
+    if (!selector.isFull()) {
+      return -1;
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("Top {} frequencies: {}", k, selector.toSortedList());
+    }
+
+    int result = selector.weakestKey();
+
+    long totalTime = System.currentTimeMillis() - startTime;
+    log.info("Processing completed in {}ms, found {}th most frequent: {}", totalTime, k, result);
+
+    return result;
+  }
+
+  /** Counts the partitions and keeps the k most frequent values. */
+  private TopKSelector select(List<DataPartition> dataPartitions, int k, int candidateLimit)
+      throws IOException {
+    // Nodes that own their keys already ship only k candidates; otherwise the threshold
+    // protocol can narrow down what they ship
+    return mergeProtocol == MergeProtocol.THRESHOLD_TOP_K && candidateLimit == 0
+        ? selectByThreshold(dataPartitions, k)
+        : selectFromFullCounts(dataPartitions, k, candidateLimit);
+  }
+
+  private TopKSelector selectFromFullCounts(
+      List<DataPartition> dataPartitions, int k, int candidateLimit) throws IOException {
+    // Step 4: Find kth frequent using a bounded heap of the k best entries
+    TopKSelector selector = new TopKSelector(k);
+    mergeFullCounts(dataPartitions, candidateLimit, selector);
+    return selector;
+  }
+
+  /** Counts the partitions on the nodes and feeds every merged (key, count) to {@code sink}. */
+  private void mergeFullCounts(
+      List<DataPartition> dataPartitions, int candidateLimit, IntLongConsumer sink)
+      throws IOException {
+    // Step 2: Process in parallel; a partition whose node fails or misses its deadline is moved to
+    // another node
+    List<CompletableFuture<ProcessingResult>> futures;
+    if (workUnitBytes > 0) {
+      futures = stealWork(dataPartitions);
+    } else {
+      futures = new ArrayList<>();
+      for (DataPartition partition : dataPartitions) {
+        futures.add(dispatcher.dispatch(partition, candidateLimit));
+      }
+    }
+
+    // Step 3: Merge node results, either through an aggregation tree or, by default, each into one
+    // striped table as soon as it completes. Spilled and encoded results are already key-ordered,
+    // so they are collected as each node finishes and merged as streams once all nodes are done;
+    // collecting them per node means a failure elsewhere cannot strand their spill files.
+    List<ProcessingResult> sortedResults = Collections.synchronizedList(new ArrayList<>());
+    List<CompletableFuture<ProcessingResult>> collected =
+        futures.stream()
+            .map(
+                future ->
+                    future.thenApply(
                         result -> {
-                          log.info(
-                              "Node {} processed frequencies: {}",
-                              result.getNodeId(),
-                              result.getFrequencies());
-                          mergeFrequencies(globalFrequencies, result.getFrequencies());
-                        });
-              })
+                          if (result.isSpilled() || result.isEncoded()) {
+                            sortedResults.add(result);
+                          }
+                          return result;
+                        }))
+            .toList();
+    try {
+      // If some node exceeded its memory threshold, stream a k-way merge of the spilled runs and
+      // the in-memory counts into the sink
+      if (aggregationFanIn > 0) {
+        IntLongCountTable globalFrequencies = aggregateTree(collected).join();
+        log.debug("Global frequencies: {}", globalFrequencies);
+        if (sortedResults.isEmpty()) {
+          globalFrequencies.forEach(sink);
+        } else {
+          mergeSortedResults(sortedResults, KeyCountCursor.sorted(globalFrequencies), sink);
+        }
+      } else {
+        StripedCountTable globalFrequencies = mergeAsCompleted(collected);
+        log.debug("Global frequencies: {}", globalFrequencies);
+        if (sortedResults.isEmpty()) {
+          globalFrequencies.forEach(sink);
+        } else {
+          mergeSortedResults(sortedResults, globalFrequencies.sorted(), sink);
+        }
+      }
+    } finally {
+      // A failed merge may return before slower nodes report, so wait for their results too
+      CompletableFuture.allOf(collected.toArray(new CompletableFuture[0]))
+          .handle((v, error) -> null)
           .join();
+      for (ProcessingResult result : sortedResults) {
+        if (result.isSpilled()) {
+          result.getSpilledRun().delete();
+        }
+      }
+    }
+  }
 
-      log.info("Global frequencies: {}", globalFrequencies);
+  /**
+   * Cuts the partitions into small units that every node pulls until none are left, so nodes that
+   * finish early take over work from slow ones. Stolen units break key ownership, so nodes report
+   * full counts whatever the candidate limit.
+   */
+  private List<CompletableFuture<ProcessingResult>> stealWork(List<DataPartition> dataPartitions) {
+    WorkStealingQueue queue = new WorkStealingQueue(dataPartitions, numNodes, workUnitBytes);
+    List<CompletableFuture<ProcessingResult>> futures = new ArrayList<>(numNodes);
+    for (int i = 0; i < numNodes; i++) {
+      int nodeId = i;
+      futures.add(localNodes.get(nodeId).processUnits(() -> queue.next(nodeId)));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        .thenRun(
+            () -> log.info("Nodes stole {} of {} work units", queue.stolenUnits(), queue.units()));
+    return futures;
+  }
 
-      // Step 4: Find kth frequent using priority queue
-      List<Map.Entry<Integer, Integer>> sortedEntries =
-          new ArrayList<>(globalFrequencies.entrySet());
-      sortedEntries.sort(
-          (a, b) -> {
-            int freqCompare = Integer.compare(b.getValue(), a.getValue());
-            return freqCompare != 0 ? freqCompare : Integer.compare(a.getKey(), b.getKey());
-          });
+  /** Runs the three-round threshold protocol over one participant per partition. */
+  private TopKSelector selectByThreshold(List<DataPartition> dataPartitions, int k) {
+    List<CompletableFuture<TopKParticipant>> futures = new ArrayList<>();
+    for (DataPartition partition : dataPartitions) {
+      futures.add(nodes.get(partition.getNodeId()).openParticipant(partition));
+    }
+    List<TopKParticipant> participants = new ArrayList<>(futures.size());
+    try {
+      for (CompletableFuture<TopKParticipant> future : futures) {
+        participants.add(future.join());
+      }
+      return new ThresholdTopK(participants, k).run();
+    } finally {
+      // Participants that were still counting when another failed are released as they finish
+      futures.forEach(future -> future.thenAccept(TopKParticipant::close));
+    }
+  }
 
-      log.info("Sorted frequencies: {}", sortedEntries);
+  public FrequencyEstimate findKthFrequentApproximate(int[] data, int k) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    return findKthFrequentApproximate(IntSlice.of(data), k);
+  }
 
-      if (k > sortedEntries.size()) {
-        return -1;
-      }
+  /**
+   * Fixed-memory variant of {@link #findKthFrequent(IntSlice, int)}: every node keeps the
+   * configured {@link Approximation} summary within its memory threshold, whatever the key
+   * cardinality. Returns null when fewer than k candidate keys were found.
+   */
+  public FrequencyEstimate findKthFrequentApproximate(IntSlice data, int k) {
+    if (data == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    requireLocalNodes("Approximate counting");
+    if (data.isEmpty()) {
+      return null;
+    }
 
-      int result = sortedEntries.get(k - 1).getKey();
+    long startTime = System.currentTimeMillis();
+    log.info(
+        "Starting {} approximate processing for K={} with {} nodes", approximation, k, numNodes);
 
-      long totalTime = System.currentTimeMillis() - startTime;
-      log.info("Processing completed in {}ms, found {}th most frequent: {}", totalTime, k, result);
+    try {
+      List<DataPartition> dataPartitions = partitionStrategy.partition(data, numNodes);
+      FrequencyEstimate result =
+          approximation == Approximation.SPACE_SAVING
+              ? estimateWithSummaries(dataPartitions, k)
+              : estimateWithSketches(dataPartitions, k);
 
+      long totalTime = System.currentTimeMillis() - startTime;
+      log.info("Approximate processing completed in {}ms, estimate: {}", totalTime, result);
       return result;
 
     } catch (Exception e) {
@@ -115,11 +721,236 @@ public class Coordinator {
     }
   }
 
-  private void mergeFrequencies(Map<Integer, Integer> global, Map<Integer, Integer> local) {
-    local.forEach(
-        (key, value) -> {
-          global.merge(key, value, Integer::sum);
-          log.debug("Merged key {} with value {}, new total: {}", key, value, global.get(key));
-        });
+  private FrequencyEstimate estimateWithSketches(List<DataPartition> dataPartitions, int k) {
+    int candidateLimit = Math.max(k * APPROXIMATE_CANDIDATES_PER_K, MIN_APPROXIMATE_CANDIDATES);
+    List<CompletableFuture<SketchResult>> futures = new ArrayList<>();
+    for (int i = 0; i < numNodes; i++) {
+      futures.add(localNodes.get(i).processDataApproximate(dataPartitions.get(i), candidateLimit));
+    }
+
+    // Merge sketches cell-wise and pool every node's candidates
+    CountMinSketch globalSketch = null;
+    IntLongCountTable candidates = new IntLongCountTable();
+    for (CompletableFuture<SketchResult> future : futures) {
+      SketchResult result = future.join();
+      if (globalSketch == null) {
+        globalSketch = result.getSketch().copy();
+      } else {
+        globalSketch.merge(result.getSketch());
+      }
+      result.getCandidates().forEach((key, count) -> candidates.add(key, 0));
+    }
+
+    if (k > candidates.size()) {
+      return null;
+    }
+    CountMinSketch sketch = globalSketch;
+    TopKSelector selector = new TopKSelector(k);
+    candidates.forEach((key, ignored) -> selector.accept(key, sketch.estimate(key)));
+
+    long estimate = selector.weakestCount();
+    return new FrequencyEstimate(
+        selector.weakestKey(),
+        estimate,
+        Math.max(0, estimate - sketch.errorBound()),
+        estimate,
+        sketch.confidence());
+  }
+
+  private FrequencyEstimate estimateWithSummaries(List<DataPartition> dataPartitions, int k) {
+    int counters =
+        summaryCounters > 0
+            ? summaryCounters
+            : (int)
+                Math.min(
+                    Integer.MAX_VALUE,
+                    Math.max(
+                        memoryThresholdPerNode / SpaceSavingSummary.BYTES_PER_COUNTER,
+                        (long) k * APPROXIMATE_CANDIDATES_PER_K));
+    List<CompletableFuture<SummaryResult>> futures = new ArrayList<>();
+    for (int i = 0; i < numNodes; i++) {
+      futures.add(localNodes.get(i).processDataSummary(dataPartitions.get(i), counters));
+    }
+
+    SpaceSavingSummary merged = null;
+    for (CompletableFuture<SummaryResult> future : futures) {
+      SpaceSavingSummary summary = future.join().getSummary();
+      merged = merged == null ? summary : SpaceSavingSummary.merge(merged, summary);
+    }
+
+    if (k > merged.size()) {
+      return null;
+    }
+    TopKSelector selector = new TopKSelector(k);
+    merged.forEach(selector);
+
+    int number = selector.weakestKey();
+    return new FrequencyEstimate(
+        number, selector.weakestCount(), merged.lowerBound(number), merged.upperBound(number), 1.0);
+  }
+
+  /**
+   * Opens an incremental session over this coordinator's nodes that can answer kth-frequent queries
+   * for any k up to {@code maxK} while chunks keep arriving.
+   */
+  public StreamingSession openSession(int maxK) {
+    if (maxK <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    requireLocalNodes("Streaming sessions");
+    return new StreamingSession(localNodes, maxK);
+  }
+
+  /**
+   * Opens a session that snapshots every node's totals to {@code checkpointDirectory} each time
+   * another {@code checkpointInterval} elements have been appended, without pausing ingestion. If
+   * the directory already holds a complete checkpoint, the session resumes from it and the input
+   * must be replayed from {@link StreamingSession#totalCount()} onwards.
+   */
+  public StreamingSession openSession(int maxK, Path checkpointDirectory, long checkpointInterval)
+      throws IOException {
+    if (maxK <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    if (checkpointDirectory == null || checkpointInterval <= 0) {
+      throw new IllegalArgumentException(
+          "Checkpoint directory cannot be null and the interval must be positive");
+    }
+    requireLocalNodes("Streaming sessions");
+    return StreamingSession.open(
+        localNodes, maxK, checkpointDirectory, checkpointInterval, executor);
+  }
+
+  public WindowedSession openWindowedSession(WindowSpec window) {
+    return openWindowedSession(window, Clock.systemUTC());
+  }
+
+  /** Opens a session answering kth-frequent queries over the given time window. */
+  public WindowedSession openWindowedSession(WindowSpec window, Clock clock) {
+    if (window == null || clock == null) {
+      throw new IllegalArgumentException("Window and clock cannot be null");
+    }
+    requireLocalNodes("Windowed sessions");
+    return new WindowedSession(localNodes, partitionStrategy, window, clock);
+  }
+
+  // Sketches, summaries and session state only exist on in-process nodes
+  private void requireLocalNodes(String operation) {
+    if (localNodes.isEmpty()) {
+      throw new UnsupportedOperationException(operation + " need in-process nodes");
+    }
+  }
+
+  /** Shuts down the node executors; work already submitted still completes. */
+  @Override
+  public void close() {
+    executor.shutdown();
+    countingPool.shutdown();
+  }
+
+  /** Merges each result as soon as its node finishes, overlapping merges with slower nodes. */
+  private StripedCountTable mergeAsCompleted(List<CompletableFuture<ProcessingResult>> futures) {
+    StripedCountTable globalFrequencies = new StripedCountTable(MERGE_STRIPES);
+    List<CompletableFuture<Void>> merges = new ArrayList<>(futures.size());
+    for (CompletableFuture<ProcessingResult> future : futures) {
+      merges.add(
+          future.thenAccept(
+              result -> {
+                if (!result.isSpilled() && !result.isEncoded()) {
+                  log.debug(
+                      "Node {} processed frequencies: {}", result.getNodeId(), result.getCounts());
+                  mergeFrequencies(globalFrequencies, result.getCounts());
+                }
+              }));
+    }
+    CompletableFuture.allOf(merges.toArray(new CompletableFuture[0])).join();
+    return globalFrequencies;
+  }
+
+  /**
+   * Merges results through a tree of aggregators with up to {@code aggregationFanIn} children each.
+   * Every aggregator runs on the node executor as soon as its children are done, so each level
+   * merges in parallel and the root sits log(nodes) merge steps above the nodes.
+   */
+  private CompletableFuture<IntLongCountTable> aggregateTree(
+      List<CompletableFuture<ProcessingResult>> futures) {
+    List<CompletableFuture<IntLongCountTable>> level = new ArrayList<>();
+    for (List<CompletableFuture<ProcessingResult>> group :
+        Lists.partition(futures, aggregationFanIn)) {
+      level.add(
+          CompletableFuture.allOf(group.toArray(new CompletableFuture[0]))
+              .thenApplyAsync(
+                  v -> {
+                    IntLongCountTable merged = new IntLongCountTable();
+                    for (CompletableFuture<ProcessingResult> future : group) {
+                      ProcessingResult result = future.join();
+                      if (!result.isSpilled() && !result.isEncoded()) {
+                        mergeFrequencies(merged, result.getCounts());
+                      }
+                    }
+                    return merged;
+                  },
+                  executor));
+    }
+    while (level.size() > 1) {
+      List<CompletableFuture<IntLongCountTable>> parents = new ArrayList<>();
+      for (List<CompletableFuture<IntLongCountTable>> group :
+          Lists.partition(level, aggregationFanIn)) {
+        parents.add(
+            group.size() == 1
+                ? group.get(0)
+                : CompletableFuture.allOf(group.toArray(new CompletableFuture[0]))
+                    .thenApplyAsync(v -> mergeTables(group), executor));
+      }
+      level = parents;
+    }
+    return level.get(0);
+  }
+
+  // Folds every child into the largest one, which then stands for the whole group
+  private static IntLongCountTable mergeTables(List<CompletableFuture<IntLongCountTable>> group) {
+    IntLongCountTable largest = null;
+    for (CompletableFuture<IntLongCountTable> child : group) {
+      if (largest == null || child.join().size() > largest.size()) {
+        largest = child.join();
+      }
+    }
+    for (CompletableFuture<IntLongCountTable> child : group) {
+      if (child.join() != largest) {
+        largest.addAll(child.join());
+      }
+    }
+    return largest;
+  }
+
+  private void mergeFrequencies(StripedCountTable global, IntCountTable local) {
+    global.addAll(local);
+  }
+
+  private void mergeFrequencies(IntLongCountTable global, IntCountTable local) {
+    global.addAll(local);
+  }
+
+  private void mergeSortedResults(
+      List<ProcessingResult> sortedResults, KeyCountCursor inMemory, IntLongConsumer sink)
+      throws IOException {
+    if (!sortedResults.isEmpty()) {
+      log.info("Streaming a merge of {} spilled or encoded node results", sortedResults.size());
+    }
+    List<KeyCountCursor> cursors = new ArrayList<>(sortedResults.size() + 1);
+    cursors.add(inMemory);
+    try {
+      for (ProcessingResult result : sortedResults) {
+        cursors.add(result.openCursor());
+      }
+      MergingCursor merged = new MergingCursor(cursors);
+      while (merged.next()) {
+        sink.accept(merged.key(), merged.count());
+      }
+    } finally {
+      for (KeyCountCursor cursor : cursors) {
+        cursor.close();
+      }
+    }
   }
 }
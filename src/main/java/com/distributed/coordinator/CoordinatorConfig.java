@@ -0,0 +1,59 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.ResultCodec;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class CoordinatorConfig {
+  int numNodes;
+  long memoryThresholdPerNode;
+  @Builder.Default PartitionStrategy partitionStrategy = new RangePartitionStrategy();
+  @Builder.Default Approximation approximation = Approximation.COUNT_MIN_SKETCH;
+
+  // Space-Saving counters per node; 0 sizes the summary from memoryThresholdPerNode
+  int summaryCounters;
+
+  @Builder.Default NodeExecutor nodeExecutor = NodeExecutor.FIXED_PLATFORM;
+
+  // Platform threads for FIXED_PLATFORM and for fork/join counting; 0 uses one per processor
+  int executorThreads;
+
+  // Values per fork/join counting task within a node; 0 uses the node default
+  int splitThreshold;
+
+  @Builder.Default MergeProtocol mergeProtocol = MergeProtocol.FULL_COUNTS;
+
+  // Children per aggregator in a FULL_COUNTS merge tree; 0 merges into one striped table
+  int aggregationFanIn;
+
+  // Node servers to count on instead of in-process nodes; when set, numNodes is their count
+  @Builder.Default List<InetSocketAddress> remoteNodes = List.of();
+
+  // Deadline per node attempt in ms, after which the attempt counts as failed; 0 waits
+  // indefinitely.
+  // Remote nodes also use it as their socket timeout, so a hung server releases its thread
+  long nodeTimeoutMs;
+
+  // Attempts per partition including the first; failed or late ones move to another node
+  @Builder.Default int maxAttempts = 1;
+
+  // Starts one duplicate of a partition still running after this many ms; 0 disables speculation
+  long speculativeAfterMs;
+
+  // Input bytes per work unit that idle nodes steal from busy ones; 0 keeps static partitions
+  long workUnitBytes;
+
+  // Directory holding each node's local input files, by node id; empty lets any node read any file
+  @Builder.Default List<Path> nodeDataRoots = List.of();
+
+  // Compression of the columnar results remote nodes send back
+  @Builder.Default ResultCodec resultCodec = ResultCodec.NONE;
+
+  // Estimated bytes of dataset rank indexes kept for repeat queries; 0 recounts every query
+  @Builder.Default long datasetCacheBytes = 64L << 20;
+}
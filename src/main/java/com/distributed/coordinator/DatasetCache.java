@@ -0,0 +1,104 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.IntSlice;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Named datasets and the rankings computed for them. Rankings are cached by dataset id and version
+ * with least-recently-used eviction bounded by their estimated size, so repeated queries skip
+ * counting until the dataset is registered under a new version. Concurrent queries for a ranking
+ * that is not cached yet wait for one shared computation.
+ */
+@Slf4j
+final class DatasetCache {
+  /** Computes the ranking of a dataset on a miss. */
+  @FunctionalInterface
+  interface Ranker {
+    RankedDataset rank(IntSlice data) throws IOException;
+  }
+
+  private record Registration(long version, IntSlice data) {}
+
+  private record Key(String id, long version) {}
+
+  private final ConcurrentMap<String, Registration> registry = new ConcurrentHashMap<>();
+  private final long maxBytes;
+  private final Cache<Key, RankedDataset> rankings;
+
+  DatasetCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+    this.rankings =
+        CacheBuilder.newBuilder()
+            // One segment, so the size bound applies to the whole cache rather than per segment
+            .concurrencyLevel(1)
+            .maximumWeight(maxBytes)
+            .<Key, RankedDataset>weigher(
+                (key, ranking) -> (int) Math.min(Integer.MAX_VALUE, ranking.estimatedBytes()))
+            .recordStats()
+            .build();
+  }
+
+  /** Registers or replaces {@code id}; the ranking of a replaced version is dropped. */
+  void register(String id, long version, IntSlice data) {
+    Registration previous = registry.put(id, new Registration(version, data));
+    if (previous != null && previous.version() != version) {
+      rankings.invalidate(new Key(id, previous.version()));
+    }
+  }
+
+  void unregister(String id) {
+    Registration previous = registry.remove(id);
+    if (previous != null) {
+      rankings.invalidate(new Key(id, previous.version()));
+    }
+  }
+
+  /** The ranking of the registered version of {@code id}, computed by {@code ranker} if needed. */
+  RankedDataset get(String id, Ranker ranker) throws IOException {
+    Registration registration = registry.get(id);
+    if (registration == null) {
+      throw new IllegalArgumentException("Unknown dataset " + id);
+    }
+    Key key = new Key(id, registration.version());
+    try {
+      return rankings.get(
+          key,
+          () -> {
+            long startTime = System.currentTimeMillis();
+            RankedDataset ranking = ranker.rank(registration.data());
+            log.info(
+                "Ranked dataset {} version {} in {}ms: {} keys, {} bytes cached",
+                id,
+                registration.version(),
+                System.currentTimeMillis() - startTime,
+                ranking.distinctKeys(),
+                ranking.estimatedBytes());
+            return ranking;
+          });
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new IllegalStateException("Failed to rank dataset " + id, e.getCause());
+    } catch (UncheckedExecutionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  /** Budget for all cached rankings; a larger one would be evicted as soon as it was cached. */
+  long maxBytes() {
+    return maxBytes;
+  }
+
+  CacheStats stats() {
+    return rankings.stats();
+  }
+}
@@ -0,0 +1,52 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shuffles elements so that each key is owned by exactly one node. Costs one copy of the input (two
+ * passes over primitive arrays), in exchange for nodes holding disjoint key sets.
+ */
+public class HashPartitionStrategy implements PartitionStrategy {
+
+  @Override
+  public List<DataPartition> partition(IntSlice data, int numNodes) {
+    // First pass sizes each node's array exactly, so the shuffle never resizes
+    int[] sizes = new int[numNodes];
+    data.forEach(key -> sizes[ownerOf(key, numNodes)]++);
+
+    int[][] buckets = new int[numNodes][];
+    for (int i = 0; i < numNodes; i++) {
+      buckets[i] = new int[sizes[i]];
+    }
+    int[] fill = new int[numNodes];
+    data.forEach(
+        key -> {
+          int owner = ownerOf(key, numNodes);
+          buckets[owner][fill[owner]++] = key;
+        });
+
+    List<DataPartition> partitions = new ArrayList<>(numNodes);
+    for (int i = 0; i < numNodes; i++) {
+      DataPartition partition = new DataPartition();
+      partition.setNodeId(i);
+      partition.setData(IntSlice.of(buckets[i]));
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+
+  @Override
+  public boolean disjointKeys() {
+    return true;
+  }
+
+  public static int ownerOf(int key, int numNodes) {
+    // Fibonacci hash mapped onto [0, numNodes) through its high bits. The count tables index by
+    // the low bits of a different hash, so a node's keys do not cluster inside its own table.
+    long hash = (key * 0x9E3779B9) & 0xFFFFFFFFL;
+    return (int) ((hash * numNodes) >>> 32);
+  }
+}
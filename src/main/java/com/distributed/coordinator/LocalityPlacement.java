@@ -0,0 +1,62 @@
+package com.distributed.coordinator;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Places pieces of input files on the nodes that hold them locally. A piece may only go to a node
+ * whose data root contains its file; within that, pieces are packed largest first onto the least
+ * loaded eligible node (LPT), which keeps the busiest node within 4/3 of the optimum when every
+ * node can read every file.
+ */
+final class LocalityPlacement {
+  private final List<Path> nodeDataRoots;
+  private final int numNodes;
+
+  /** An empty {@code nodeDataRoots} lets every node read every file. */
+  LocalityPlacement(List<Path> nodeDataRoots, int numNodes) {
+    this.nodeDataRoots =
+        nodeDataRoots.stream().map(root -> root.toAbsolutePath().normalize()).toList();
+    this.numNodes = numNodes;
+  }
+
+  /** Nodes whose data root contains {@code file}. */
+  int[] eligibleNodes(Path file) {
+    if (nodeDataRoots.isEmpty()) {
+      return IntStream.range(0, numNodes).toArray();
+    }
+    Path normalized = file.toAbsolutePath().normalize();
+    int[] eligible =
+        IntStream.range(0, numNodes)
+            .filter(node -> normalized.startsWith(nodeDataRoots.get(node)))
+            .toArray();
+    if (eligible.length == 0) {
+      throw new IllegalArgumentException("No node has local access to " + file);
+    }
+    return eligible;
+  }
+
+  /** Returns the node for each piece, given its size in bytes and the nodes allowed to hold it. */
+  int[] assign(long[] sizes, int[][] eligible) {
+    Integer[] order = new Integer[sizes.length];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, Comparator.comparingLong((Integer i) -> sizes[i]).reversed());
+
+    long[] load = new long[numNodes];
+    int[] assignment = new int[sizes.length];
+    for (int piece : order) {
+      int best = eligible[piece][0];
+      for (int node : eligible[piece]) {
+        if (load[node] < load[best]) {
+          best = node;
+        }
+      }
+      assignment[piece] = best;
+      load[best] += sizes[piece];
+    }
+    return assignment;
+  }
+}
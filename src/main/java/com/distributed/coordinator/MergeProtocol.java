@@ -0,0 +1,9 @@
+package com.distributed.coordinator;
+
+/** How {@link Coordinator#findKthFrequent} gathers exact counts from nodes whose keys overlap. */
+public enum MergeProtocol {
+  /** Every node ships its whole frequency table. */
+  FULL_COUNTS,
+  /** Three-round threshold protocol (TPUT); nodes ship only keys that can reach the top k. */
+  THRESHOLD_TOP_K
+}
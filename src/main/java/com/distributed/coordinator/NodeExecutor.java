@@ -0,0 +1,9 @@
+package com.distributed.coordinator;
+
+/** Threads a {@link Coordinator} runs its nodes' work on. */
+public enum NodeExecutor {
+  /** Bounded pool of platform threads, by default one per core; suits CPU-bound counting. */
+  FIXED_PLATFORM,
+  /** A virtual thread per task; suits ingestion that mostly waits on I/O. */
+  VIRTUAL_THREADS
+}
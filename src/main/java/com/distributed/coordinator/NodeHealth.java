@@ -0,0 +1,66 @@
+package com.distributed.coordinator;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Failure tracking for a coordinator's nodes, shared by all of its queries. A node that fails or
+ * misses its deadline {@value #FAILURES_BEFORE_UNHEALTHY} times in a row stops receiving work until
+ * it succeeds again or, after {@value #PROBATION_MS} ms, is given one more chance.
+ */
+final class NodeHealth {
+  static final int FAILURES_BEFORE_UNHEALTHY = 2;
+  static final long PROBATION_MS = 30_000;
+
+  private final int[] consecutiveFailures;
+  private final long[] lastFailureNanos;
+  private final int[] inFlight;
+
+  NodeHealth(int numNodes) {
+    this.consecutiveFailures = new int[numNodes];
+    this.lastFailureNanos = new long[numNodes];
+    this.inFlight = new int[numNodes];
+  }
+
+  synchronized boolean isHealthy(int node) {
+    return consecutiveFailures[node] < FAILURES_BEFORE_UNHEALTHY
+        || System.nanoTime() - lastFailureNanos[node]
+            >= TimeUnit.MILLISECONDS.toNanos(PROBATION_MS);
+  }
+
+  synchronized void started(int node) {
+    inFlight[node]++;
+  }
+
+  synchronized void succeeded(int node) {
+    inFlight[node]--;
+    consecutiveFailures[node] = 0;
+  }
+
+  synchronized void failed(int node) {
+    inFlight[node]--;
+    consecutiveFailures[node]++;
+    lastFailureNanos[node] = System.nanoTime();
+  }
+
+  /**
+   * Least loaded of the {@code eligible} nodes (all nodes if null) outside {@code exclude},
+   * preferring healthy ones; falls back to excluded nodes only when there is nothing else.
+   */
+  synchronized int choose(Set<Integer> exclude, int[] eligible) {
+    int best = -1;
+    for (int i = 0; i < (eligible == null ? inFlight.length : eligible.length); i++) {
+      int node = eligible == null ? i : eligible[i];
+      if (best < 0 || rank(node, exclude) < rank(best, exclude)) {
+        best = node;
+      }
+    }
+    return best;
+  }
+
+  // Healthy untried nodes first, then unhealthy untried, then tried ones; least loaded within each
+  private long rank(int node, Set<Integer> exclude) {
+    long tier = (exclude.contains(node) ? 2 : 0) + (isHealthy(node) ? 0 : 1);
+    return (tier << 32) + inFlight[node];
+  }
+}
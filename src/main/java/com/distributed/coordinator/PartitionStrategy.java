@@ -0,0 +1,17 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
+import java.util.List;
+
+public interface PartitionStrategy {
+  List<DataPartition> partition(IntSlice data, int numNodes);
+
+  /**
+   * Whether every key is routed to exactly one partition. When true, a node's local counts are
+   * already global totals, so nodes only need to report their local top-k candidates.
+   */
+  default boolean disjointKeys() {
+    return false;
+  }
+}
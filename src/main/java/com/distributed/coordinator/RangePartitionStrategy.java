@@ -0,0 +1,24 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Splits the input into contiguous, near-equal views. Zero-copy, but keys span all nodes. */
+public class RangePartitionStrategy implements PartitionStrategy {
+
+  @Override
+  public List<DataPartition> partition(IntSlice data, int numNodes) {
+    List<DataPartition> partitions = new ArrayList<>(numNodes);
+    for (int i = 0; i < numNodes; i++) {
+      int from = (int) ((long) data.size() * i / numNodes);
+      int to = (int) ((long) data.size() * (i + 1) / numNodes);
+      DataPartition partition = new DataPartition();
+      partition.setNodeId(i);
+      partition.setData(data.slice(from, to - from));
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+}
@@ -0,0 +1,119 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.EncodedCounts;
+import com.distributed.model.FrequencyPair;
+import com.distributed.model.ResultCodec;
+import com.distributed.util.FrequencyRankIndex;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.TopKSelector;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * The merged global counts of one dataset version. Normally they sit in a prepared rank index, so
+ * any kth, rank or range query is answered without sorting the counts again. An index costs tens of
+ * bytes per key, so one larger than the cache budget would be evicted as soon as it was cached;
+ * such datasets keep their counts encoded instead, at a few bytes per key, and each query scans
+ * them once rather than recounting the data. Read-only once built.
+ */
+final class RankedDataset {
+  private final FrequencyRankIndex index;
+  private final EncodedCounts counts;
+
+  private RankedDataset(FrequencyRankIndex index, EncodedCounts counts) {
+    this.index = index;
+    this.counts = counts;
+  }
+
+  /** Keeps the index if it fits in {@code maxBytes}, or the encoded counts otherwise. */
+  static RankedDataset of(FrequencyRankIndex index, long maxBytes) throws IOException {
+    index.prepare();
+    if (index.estimatedBytes() <= maxBytes) {
+      return new RankedDataset(index, null);
+    }
+    try (KeyCountCursor cursor = index.sortedByKey()) {
+      return new RankedDataset(null, EncodedCounts.encode(cursor, ResultCodec.NONE));
+    }
+  }
+
+  boolean isIndexed() {
+    return index != null;
+  }
+
+  /** The {@code n} most frequent values, most frequent first; fewer if there are fewer keys. */
+  List<FrequencyPair> top(int n) {
+    return range(1, n);
+  }
+
+  FrequencyPair kth(int k) {
+    if (index != null) {
+      return index.kth(k);
+    }
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    List<FrequencyPair> top = top(k);
+    return top.size() < k ? null : top.get(k - 1);
+  }
+
+  int rankOf(int key) {
+    if (index != null) {
+      return index.rankOf(key);
+    }
+    long count = 0;
+    try (KeyCountCursor cursor = counts.open()) {
+      while (cursor.next() && cursor.key() <= key) {
+        if (cursor.key() == key) {
+          count = cursor.count();
+        }
+      }
+      if (count == 0) {
+        return -1;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    int rank = 1;
+    try (KeyCountCursor cursor = counts.open()) {
+      while (cursor.next()) {
+        if (FrequencyPair.compare(cursor.key(), cursor.count(), key, count) < 0) {
+          rank++;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return rank;
+  }
+
+  List<FrequencyPair> range(int fromRank, int toRank) {
+    if (index != null) {
+      return index.range(fromRank, toRank);
+    }
+    if (fromRank <= 0 || toRank < fromRank) {
+      throw new IllegalArgumentException("Ranks must be positive and in ascending order");
+    }
+    if (fromRank > counts.getEntries()) {
+      return List.of();
+    }
+    TopKSelector selector = new TopKSelector((int) Math.min(toRank, counts.getEntries()));
+    try (KeyCountCursor cursor = counts.open()) {
+      while (cursor.next()) {
+        selector.accept(cursor.key(), cursor.count());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    List<FrequencyPair> top = selector.toSortedList();
+    return top.subList(fromRank - 1, top.size());
+  }
+
+  long distinctKeys() {
+    return index != null ? index.size() : counts.getEntries();
+  }
+
+  long estimatedBytes() {
+    return index != null ? index.estimatedBytes() : counts.encodedBytes();
+  }
+}
@@ -0,0 +1,174 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.ProcessingResult;
+import com.distributed.node.ExactCountingNode;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs partitions on nodes with deadlines. An attempt that fails or misses its deadline counts
+ * against its node's health and the partition moves to another node, up to {@code maxAttempts}
+ * times; a partition still running after the speculation delay gets one duplicate on another node.
+ * Whichever attempt finishes first, even one past its deadline, supplies the result. A partition
+ * that lists its eligible nodes only ever moves between those.
+ */
+@Slf4j
+final class ResilientDispatcher {
+  private final List<? extends ExactCountingNode> nodes;
+  private final NodeHealth health;
+  private final long timeoutMs;
+  private final int maxAttempts;
+  private final long speculativeAfterMs;
+
+  ResilientDispatcher(
+      List<? extends ExactCountingNode> nodes,
+      NodeHealth health,
+      long timeoutMs,
+      int maxAttempts,
+      long speculativeAfterMs) {
+    this.nodes = nodes;
+    this.health = health;
+    this.timeoutMs = timeoutMs;
+    this.maxAttempts = maxAttempts;
+    this.speculativeAfterMs = speculativeAfterMs;
+  }
+
+  /** Starts the partition on its own node, or on a substitute if that node is unhealthy. */
+  CompletableFuture<ProcessingResult> dispatch(DataPartition partition, int candidateLimit) {
+    Execution execution = new Execution(partition, candidateLimit);
+    int node = partition.getNodeId();
+    execution.launch(
+        health.isHealthy(node) ? node : health.choose(Set.of(node), partition.getEligibleNodes()),
+        false);
+    if (speculativeAfterMs > 0) {
+      CompletableFuture.runAsync(execution::speculate, after(speculativeAfterMs));
+    }
+    return execution.result;
+  }
+
+  private static Executor after(long delayMs) {
+    return CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  private final class Execution {
+    private final DataPartition partition;
+    private final int candidateLimit;
+    private final CompletableFuture<ProcessingResult> result = new CompletableFuture<>();
+    private final Set<Integer> tried = new HashSet<>();
+    private int attempts;
+    private int live;
+    private boolean speculated;
+
+    Execution(DataPartition partition, int candidateLimit) {
+      this.partition = partition;
+      this.candidateLimit = candidateLimit;
+    }
+
+    synchronized void launch(int node, boolean speculative) {
+      if (!speculative) {
+        attempts++;
+      }
+      live++;
+      tried.add(node);
+      health.started(node);
+      Attempt attempt = new Attempt(node);
+      CompletableFuture<ProcessingResult> counting;
+      try {
+        counting = nodes.get(node).processData(partition, candidateLimit);
+      } catch (RuntimeException e) {
+        // Settled like any other failure, so the node's in-flight count is released
+        counting = CompletableFuture.failedFuture(e);
+      }
+      counting.whenComplete((counted, error) -> attempt.finished(counted, error));
+      if (timeoutMs > 0) {
+        CompletableFuture.runAsync(attempt::deadlinePassed, after(timeoutMs));
+      }
+    }
+
+    synchronized void speculate() {
+      if (result.isDone() || speculated || live != 1) {
+        return;
+      }
+      speculated = true;
+      int node = health.choose(tried, partition.getEligibleNodes());
+      if (tried.contains(node) || !health.isHealthy(node)) {
+        return;
+      }
+      log.info(
+          "Node {} partition still running after {}ms, speculating on node {}",
+          partition.getNodeId(),
+          speculativeAfterMs,
+          node);
+      launch(node, true);
+    }
+
+    /** Moves the partition on after a failed attempt, or fails it once no attempts are left. */
+    synchronized void attemptFailed(int node, Throwable error) {
+      live--;
+      if (result.isDone()) {
+        return;
+      }
+      if (attempts < maxAttempts) {
+        int next = health.choose(tried, partition.getEligibleNodes());
+        log.warn(
+            "Attempt {} of node {} partition failed on node {} ({}), re-dispatching to node {}",
+            attempts,
+            partition.getNodeId(),
+            node,
+            error.toString(),
+            next);
+        launch(next, false);
+      } else if (live == 0) {
+        result.completeExceptionally(error);
+      }
+    }
+
+    private final class Attempt {
+      private final int node;
+      private boolean settled;
+
+      Attempt(int node) {
+        this.node = node;
+      }
+
+      void finished(ProcessingResult counted, Throwable error) {
+        synchronized (Execution.this) {
+          if (error == null) {
+            if (!settled) {
+              settled = true;
+              health.succeeded(node);
+              live--;
+            }
+            if (!result.complete(counted) && counted.isSpilled()) {
+              // A duplicate already supplied the result
+              counted.getSpilledRun().delete();
+            }
+          } else if (!settled) {
+            settled = true;
+            health.failed(node);
+            attemptFailed(node, error);
+          }
+        }
+      }
+
+      void deadlinePassed() {
+        synchronized (Execution.this) {
+          if (!settled && !result.isDone()) {
+            settled = true;
+            health.failed(node);
+            attemptFailed(
+                node,
+                new TimeoutException("Node " + node + " missed its " + timeoutMs + "ms deadline"));
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,252 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.FrequencyPair;
+import com.distributed.model.IntSlice;
+import com.distributed.node.CheckpointedCounts;
+import com.distributed.node.ProcessingNode;
+import com.distributed.util.IncrementalTopK;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.IntLongCountTable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Incremental kth-frequent over an unbounded stream. Chunks are hash-partitioned so each node owns
+ * its keys and keeps running totals in place; the session folds every chunk's touched keys into an
+ * {@link IncrementalTopK}, so queries cost O(k) no matter how much history has been appended.
+ *
+ * <p>With a checkpoint directory, every node's totals are snapshotted in the background each time
+ * another {@code checkpointInterval} elements have been appended. A checkpoint is complete once its
+ * manifest, naming the stream offset it covers, has been written after all node snapshots.
+ */
+@Slf4j
+public class StreamingSession {
+  static final String MANIFEST = "CHECKPOINT";
+
+  private final List<ProcessingNode> nodes;
+  // Each node's running totals: plain tables without checkpointing, double-buffered with it
+  private final IntLongCountTable[] totals;
+  private final CheckpointedCounts[] nodeCounts;
+  private final PartitionStrategy partitionStrategy = new HashPartitionStrategy();
+  private final IncrementalTopK topK;
+  private final Path checkpointDirectory;
+  private final long checkpointInterval;
+  private final Executor checkpointExecutor;
+  private long totalCount;
+  private long lastCheckpointOffset;
+  private CompletableFuture<Long> pendingCheckpoint = CompletableFuture.completedFuture(0L);
+
+  StreamingSession(List<ProcessingNode> nodes, int maxK) {
+    this(nodes, maxK, null, 0, null);
+  }
+
+  private StreamingSession(
+      List<ProcessingNode> nodes,
+      int maxK,
+      Path checkpointDirectory,
+      long checkpointInterval,
+      Executor checkpointExecutor) {
+    this.nodes = nodes;
+    if (checkpointDirectory == null) {
+      this.totals = new IntLongCountTable[nodes.size()];
+      Arrays.setAll(totals, i -> new IntLongCountTable());
+      this.nodeCounts = null;
+    } else {
+      this.totals = null;
+      this.nodeCounts = new CheckpointedCounts[nodes.size()];
+      Arrays.setAll(nodeCounts, i -> new CheckpointedCounts());
+    }
+    this.topK = new IncrementalTopK(maxK);
+    this.checkpointDirectory = checkpointDirectory;
+    this.checkpointInterval = checkpointInterval;
+    this.checkpointExecutor = checkpointExecutor;
+  }
+
+  /** Opens a checkpointed session, resuming from the directory's latest complete checkpoint. */
+  static StreamingSession open(
+      List<ProcessingNode> nodes,
+      int maxK,
+      Path checkpointDirectory,
+      long checkpointInterval,
+      Executor checkpointExecutor)
+      throws IOException {
+    StreamingSession session =
+        new StreamingSession(
+            nodes, maxK, checkpointDirectory, checkpointInterval, checkpointExecutor);
+    Files.createDirectories(checkpointDirectory);
+    Path manifest = checkpointDirectory.resolve(MANIFEST);
+    if (Files.exists(manifest)) {
+      session.restore(manifest);
+    }
+    return session;
+  }
+
+  public void append(int[] chunk) {
+    if (chunk == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    append(IntSlice.of(chunk));
+  }
+
+  public synchronized void append(IntSlice chunk) {
+    if (chunk == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    if (chunk.isEmpty()) {
+      return;
+    }
+
+    List<DataPartition> partitions = partitionStrategy.partition(chunk, nodes.size());
+    List<CompletableFuture<IntCountTable>> futures = new ArrayList<>(nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      IntLongCountTable target = totals != null ? totals[i] : nodeCounts[i].delta();
+      futures.add(nodes.get(i).accumulate(partitions.get(i), target));
+    }
+
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        IntCountTable touched = futures.get(i).join();
+        if (totals != null) {
+          IntLongCountTable owned = totals[i];
+          touched.forEach((key, delta) -> topK.update(key, owned.get(key)));
+        } else {
+          nodeCounts[i].forEachTotal(touched, topK::update);
+        }
+      }
+    } catch (Exception e) {
+      log.error("Error appending chunk to streaming session", e);
+      throw new RuntimeException("Failed to process data", e);
+    }
+    totalCount += chunk.size();
+    log.debug("Appended {} elements, {} seen in total", chunk.size(), totalCount);
+
+    // A checkpoint still being written defers the next one to a later chunk
+    if (checkpointDirectory != null
+        && totalCount - lastCheckpointOffset >= checkpointInterval
+        && pendingCheckpoint.isDone()) {
+      startCheckpoint();
+    }
+  }
+
+  /**
+   * Waits for any checkpoint in progress, then snapshots the current totals. The future completes
+   * with the checkpointed offset once the checkpoint is complete on disk.
+   */
+  public synchronized CompletableFuture<Long> checkpoint() {
+    if (checkpointDirectory == null) {
+      throw new IllegalStateException("Session was opened without a checkpoint directory");
+    }
+    pendingCheckpoint.exceptionally(error -> null).join();
+    startCheckpoint();
+    return pendingCheckpoint;
+  }
+
+  /** Current kth most frequent key, or -1 if fewer than k distinct keys have been seen. */
+  public synchronized int kthFrequent(int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    if (k > topK.capacity()) {
+      throw new IllegalArgumentException(
+          "K cannot exceed the session maximum of " + topK.capacity());
+    }
+    FrequencyPair pair = topK.get(k);
+    return pair == null ? -1 : pair.getNumber();
+  }
+
+  public synchronized List<FrequencyPair> topFrequent() {
+    return topK.toList();
+  }
+
+  /** Elements appended so far; after a restore, where replay of the input has to start. */
+  public synchronized long totalCount() {
+    return totalCount;
+  }
+
+  private void startCheckpoint() {
+    long offset = totalCount;
+    lastCheckpointOffset = offset;
+    List<CompletableFuture<Void>> snapshots = new ArrayList<>(nodeCounts.length);
+    for (int i = 0; i < nodeCounts.length; i++) {
+      snapshots.add(nodeCounts[i].snapshot(snapshotFile(i, offset), offset, checkpointExecutor));
+    }
+    pendingCheckpoint =
+        CompletableFuture.allOf(snapshots.toArray(new CompletableFuture[0]))
+            .thenApply(
+                v -> {
+                  try {
+                    writeManifest(offset);
+                    deleteSnapshotsBefore(offset);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to complete checkpoint", e);
+                  }
+                  log.info("Checkpointed {} nodes at offset {}", nodeCounts.length, offset);
+                  return offset;
+                });
+    pendingCheckpoint.exceptionally(
+        error -> {
+          log.error("Checkpoint at offset {} failed", offset, error);
+          return null;
+        });
+  }
+
+  private void restore(Path manifest) throws IOException {
+    String[] fields = Files.readString(manifest).trim().split(" ");
+    long offset = Long.parseLong(fields[0]);
+    int checkpointNodes = Integer.parseInt(fields[1]);
+    if (checkpointNodes != nodes.size()) {
+      throw new IllegalArgumentException(
+          "Checkpoint has " + checkpointNodes + " nodes but the session has " + nodes.size());
+    }
+    for (int i = 0; i < nodeCounts.length; i++) {
+      Path file = snapshotFile(i, offset);
+      if (CheckpointedCounts.readOffset(file) != offset) {
+        throw new IOException(file + " does not match the checkpoint offset " + offset);
+      }
+      nodeCounts[i] = CheckpointedCounts.restore(file);
+      nodeCounts[i].forEachRestored(topK::update);
+    }
+    totalCount = offset;
+    lastCheckpointOffset = offset;
+    log.info("Restored {} nodes from the checkpoint at offset {}", nodes.size(), offset);
+  }
+
+  // Written beside the manifest and moved into place, so it only ever names complete snapshots
+  private void writeManifest(long offset) throws IOException {
+    Path temporary = checkpointDirectory.resolve(MANIFEST + ".tmp");
+    Files.writeString(temporary, offset + " " + nodeCounts.length + "\n");
+    Files.move(
+        temporary,
+        checkpointDirectory.resolve(MANIFEST),
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void deleteSnapshotsBefore(long offset) throws IOException {
+    try (Stream<Path> files = Files.list(checkpointDirectory)) {
+      for (Path file : files.toList()) {
+        String name = file.getFileName().toString();
+        if (name.startsWith("node-")
+            && name.endsWith(".ckpt")
+            && !name.endsWith("-" + offset + ".ckpt")) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+
+  private Path snapshotFile(int node, long offset) {
+    return checkpointDirectory.resolve("node-" + node + "-" + offset + ".ckpt");
+  }
+}
@@ -0,0 +1,142 @@
+package com.distributed.coordinator;
+
+import com.distributed.node.TopKParticipant;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.IntLongCountTable;
+import com.distributed.util.TopKSelector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exact top-k over m participants in three rounds (TPUT, Cao and Wang 2004).
+ *
+ * <ol>
+ *   <li>Every participant sends its local top-k; the kth best partial sum is a lower bound tau1 on
+ *       the kth global count.
+ *   <li>Every participant sends all keys with a local count of at least ceil(tau1 / m). A key none
+ *       of them sends totals less than tau1, so it cannot be in the top k. Keys whose partial sum
+ *       plus the most that silent participants could hold still reaches the new kth partial sum
+ *       tau2 remain candidates.
+ *   <li>Participants send their exact counts for the candidates they have not reported yet.
+ * </ol>
+ */
+@Slf4j
+class ThresholdTopK {
+  private final List<TopKParticipant> participants;
+  private final int k;
+  // Local counts each participant has reported so far
+  private final IntCountTable[] reported;
+  private long transferredEntries;
+
+  ThresholdTopK(List<TopKParticipant> participants, int k) {
+    this.participants = participants;
+    this.k = k;
+    this.reported = new IntCountTable[participants.size()];
+  }
+
+  TopKSelector run() {
+    int m = participants.size();
+
+    // Round 1: local top-k and the lower bound tau1
+    List<IntCountTable> tops = collect(i -> participants.get(i).localTopK(k));
+    for (int i = 0; i < m; i++) {
+      reported[i] = tops.get(i);
+    }
+    long tau1 = kthBest(partialSums());
+
+    // Round 2: every key that could still reach tau1 somewhere
+    int minCount = (int) ((tau1 + m - 1) / m);
+    List<IntCountTable> above = collect(i -> participants.get(i).atLeast(minCount));
+    for (int i = 0; i < m; i++) {
+      reported[i].addAll(above.get(i));
+    }
+    IntLongCountTable partial = partialSums();
+    long tau2 = kthBest(partial);
+
+    // Prune: a participant that stayed silent on a key holds fewer than minCount of it
+    long maxUnreported = Math.max(minCount - 1, 0);
+    IntLongCountTable reporters = new IntLongCountTable(partial.size());
+    for (IntCountTable table : reported) {
+      table.forEach((key, count) -> reporters.add(key, 1));
+    }
+    IntLongCountTable candidates = new IntLongCountTable();
+    partial.forEach(
+        (key, sum) -> {
+          if (sum + (m - reporters.get(key)) * maxUnreported >= tau2) {
+            candidates.add(key, sum);
+          }
+        });
+
+    // Round 3: fill in the counts still missing for the candidates
+    if (maxUnreported > 0) {
+      List<IntCountTable> missing =
+          collect(i -> participants.get(i).countsOf(missingKeys(candidates, reported[i])));
+      missing.forEach(counts -> counts.forEach(candidates::add));
+    }
+
+    log.info(
+        "Threshold top-k: tau1={}, tau2={}, {} candidates, {} entries transferred",
+        tau1,
+        tau2,
+        candidates.size(),
+        transferredEntries);
+    TopKSelector selector = new TopKSelector(k);
+    candidates.forEach(selector);
+    return selector;
+  }
+
+  /** Number of (key, count) entries participants have sent so far. */
+  long transferredEntries() {
+    return transferredEntries;
+  }
+
+  private List<IntCountTable> collect(IntFunction<CompletableFuture<IntCountTable>> round) {
+    List<CompletableFuture<IntCountTable>> futures = new ArrayList<>(participants.size());
+    for (int i = 0; i < participants.size(); i++) {
+      futures.add(round.apply(i));
+    }
+    List<IntCountTable> responses = new ArrayList<>(futures.size());
+    for (CompletableFuture<IntCountTable> future : futures) {
+      IntCountTable response = future.join();
+      transferredEntries += response.size();
+      responses.add(response);
+    }
+    return responses;
+  }
+
+  private IntLongCountTable partialSums() {
+    IntLongCountTable sums = new IntLongCountTable();
+    for (IntCountTable table : reported) {
+      sums.addAll(table);
+    }
+    return sums;
+  }
+
+  private long kthBest(IntLongCountTable sums) {
+    TopKSelector selector = new TopKSelector(k);
+    sums.forEach(selector);
+    return selector.isFull() ? selector.weakestCount() : 0;
+  }
+
+  private static int[] missingKeys(IntLongCountTable candidates, IntCountTable reported) {
+    int[] missing = {0};
+    candidates.forEach(
+        (key, sum) -> {
+          if (!reported.containsKey(key)) {
+            missing[0]++;
+          }
+        });
+    int[] keys = new int[missing[0]];
+    int[] fill = {0};
+    candidates.forEach(
+        (key, sum) -> {
+          if (!reported.containsKey(key)) {
+            keys[fill[0]++] = key;
+          }
+        });
+    return keys;
+  }
+}
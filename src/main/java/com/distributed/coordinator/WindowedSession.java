@@ -0,0 +1,115 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
+import com.distributed.model.WindowSpec;
+import com.distributed.node.ProcessingNode;
+import com.distributed.node.WindowedCounts;
+import com.distributed.util.IntLongCountTable;
+import com.distributed.util.TopKSelector;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Windowed kth-frequent queries over a stream. Nodes count each chunk into the bucket for its
+ * timestamp; queries merge only the buckets still inside the window.
+ */
+@Slf4j
+public class WindowedSession {
+  private final List<ProcessingNode> nodes;
+  private final PartitionStrategy partitionStrategy;
+  private final WindowSpec window;
+  private final Clock clock;
+  private final WindowedCounts[] nodeWindows;
+  private long newestBucket = Long.MIN_VALUE;
+  private long droppedLate;
+
+  WindowedSession(
+      List<ProcessingNode> nodes,
+      PartitionStrategy partitionStrategy,
+      WindowSpec window,
+      Clock clock) {
+    this.nodes = nodes;
+    this.partitionStrategy = partitionStrategy;
+    this.window = window;
+    this.clock = clock;
+    this.nodeWindows = new WindowedCounts[nodes.size()];
+    for (int i = 0; i < nodeWindows.length; i++) {
+      nodeWindows[i] = new WindowedCounts(window.getBucketsPerWindow());
+    }
+  }
+
+  public void append(int[] chunk) {
+    if (chunk == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    append(clock.millis(), IntSlice.of(chunk));
+  }
+
+  public synchronized void append(long timestampMillis, IntSlice chunk) {
+    if (chunk == null) {
+      throw new IllegalArgumentException("Input data cannot be null");
+    }
+    long bucket = window.bucketOf(timestampMillis);
+    if (chunk.isEmpty()) {
+      return;
+    }
+    if (newestBucket != Long.MIN_VALUE && bucket <= newestBucket - window.getBucketsPerWindow()) {
+      droppedLate += chunk.size();
+      log.debug("Dropped {} elements older than the window", chunk.size());
+      return;
+    }
+    newestBucket = Math.max(newestBucket, bucket);
+
+    List<DataPartition> partitions = partitionStrategy.partition(chunk, nodes.size());
+    List<CompletableFuture<Boolean>> futures = new ArrayList<>(nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      futures.add(nodes.get(i).accumulateWindow(partitions.get(i), bucket, nodeWindows[i]));
+    }
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        // A node whose own window has already moved past the bucket drops its share
+        if (!futures.get(i).join()) {
+          int dropped = partitions.get(i).getData().size();
+          droppedLate += dropped;
+          log.warn("Node {} dropped {} elements whose bucket had already expired", i, dropped);
+        }
+      }
+    } catch (Exception e) {
+      log.error("Error appending chunk to windowed session", e);
+      throw new RuntimeException("Failed to process data", e);
+    }
+  }
+
+  /** Kth most frequent key in the window ending now, or -1 if it has fewer than k keys. */
+  public int kthFrequent(int k) {
+    return kthFrequent(k, clock.millis());
+  }
+
+  public synchronized int kthFrequent(int k, long nowMillis) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    long current = window.bucketOf(nowMillis);
+    long oldest = current - window.getBucketsPerWindow() + 1;
+
+    IntLongCountTable windowFrequencies = new IntLongCountTable();
+    for (WindowedCounts counts : nodeWindows) {
+      counts.forEachLive(oldest, current, windowFrequencies::addAll);
+    }
+    if (k > windowFrequencies.size()) {
+      return -1;
+    }
+    TopKSelector selector = new TopKSelector(k);
+    windowFrequencies.forEach(selector);
+    return selector.weakestKey();
+  }
+
+  /** Elements dropped because their bucket had left the window, here or on a node. */
+  public synchronized long droppedLateCount() {
+    return droppedLate;
+  }
+}
@@ -0,0 +1,86 @@
+package com.distributed.coordinator;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.DelimitedText;
+import com.distributed.model.IntSlice;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Work units of one query, cut from the node partitions. Each node takes its own units from the
+ * front of its deque, keeping locality, and once they run out steals from the back of the next node
+ * that still has work, so a slow partition is shared out instead of setting the latency.
+ */
+final class WorkStealingQueue {
+  private final List<ConcurrentLinkedDeque<DataPartition>> deques;
+  private final AtomicInteger stolen = new AtomicInteger();
+  private final int units;
+
+  /** Cuts every partition into units of about {@code unitBytes} for the node it was placed on. */
+  WorkStealingQueue(List<DataPartition> partitions, int numNodes, long unitBytes) {
+    this.deques = new ArrayList<>(numNodes);
+    for (int i = 0; i < numNodes; i++) {
+      deques.add(new ConcurrentLinkedDeque<>());
+    }
+    int count = 0;
+    for (DataPartition partition : partitions) {
+      int parts = (int) Math.min(Integer.MAX_VALUE, Math.ceilDiv(partition.byteSize(), unitBytes));
+      for (DataPartition unit : split(partition, Math.max(1, parts))) {
+        deques.get(partition.getNodeId()).addLast(unit);
+        count++;
+      }
+    }
+    this.units = count;
+  }
+
+  /** Next unit for {@code nodeId}, or null once every deque is empty. */
+  DataPartition next(int nodeId) {
+    DataPartition unit = deques.get(nodeId).pollFirst();
+    if (unit != null) {
+      return unit;
+    }
+    for (int i = 1; i < deques.size(); i++) {
+      unit = deques.get((nodeId + i) % deques.size()).pollLast();
+      if (unit != null) {
+        stolen.incrementAndGet();
+        return unit;
+      }
+    }
+    return null;
+  }
+
+  int units() {
+    return units;
+  }
+
+  int stolenUnits() {
+    return stolen.get();
+  }
+
+  private static List<DataPartition> split(DataPartition partition, int parts) {
+    List<DataPartition> units = new ArrayList<>(parts);
+    if (partition.getText() != null) {
+      for (DelimitedText text : partition.getText().split(parts)) {
+        DataPartition unit = new DataPartition();
+        unit.setNodeId(partition.getNodeId());
+        unit.setText(text);
+        units.add(unit);
+      }
+      return units;
+    }
+    IntSlice data = partition.getData();
+    for (int i = 0; i < parts; i++) {
+      int from = (int) ((long) data.size() * i / parts);
+      int to = (int) ((long) data.size() * (i + 1) / parts);
+      if (to > from) {
+        DataPartition unit = new DataPartition();
+        unit.setNodeId(partition.getNodeId());
+        unit.setData(data.slice(from, to - from));
+        units.add(unit);
+      }
+    }
+    return units;
+  }
+}
@@ -1,10 +1,53 @@
 package com.distributed.model;
 
 import java.util.List;
+import java.util.function.IntConsumer;
 import lombok.Data;
 
 @Data
 public class DataPartition {
   private int nodeId;
-  private List<Integer> data;
+  private IntSlice data;
+  // Set instead of data when the node parses its values from delimited text
+  private DelimitedText text;
+  // Set instead of data or text when a remote node maps the range from its own disk
+  private FileRange fileRange;
+  // Nodes that hold the input locally, so retries stay on them; null lets any node take it
+  private int[] eligibleNodes;
+
+  public void setData(IntSlice data) {
+    this.data = data;
+  }
+
+  public void setData(List<Integer> data) {
+    this.data = IntSlice.copyOf(data);
+  }
+
+  /** Visits every value of the partition, parsing them first if it holds text. */
+  public void forEach(IntConsumer consumer) {
+    if (fileRange != null) {
+      throw new IllegalStateException("File ranges are read by the node that holds the file");
+    }
+    if (text != null) {
+      text.forEach(consumer);
+    } else {
+      data.forEach(consumer);
+    }
+  }
+
+  /** Size of the input this partition covers, as text or as int32 values. */
+  public long byteSize() {
+    if (fileRange != null) {
+      return fileRange.getLength();
+    }
+    return text != null ? text.byteSize() : (long) data.size() * Integer.BYTES;
+  }
+
+  /** Human-readable size for logging; text partitions are only sized in bytes until parsed. */
+  public String describeSize() {
+    if (fileRange != null) {
+      return fileRange.getLength() + " bytes of " + fileRange.getPath();
+    }
+    return text != null ? text.byteSize() + " bytes of text" : data.size() + " elements";
+  }
 }
@@ -0,0 +1,195 @@
+package com.distributed.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only window of a memory-mapped file of ASCII integers separated by commas or whitespace.
+ * Windows start and end on delimiters, so each can be parsed independently; parsing reads bytes
+ * straight from the mapping without allocating strings or boxed values.
+ */
+public final class DelimitedText {
+  // Leaves room to extend a range to the end of the token it splits
+  static final long MAX_MAPPED_BYTES = Integer.MAX_VALUE - (1 << 16);
+  private static final int BOUNDARY_SCAN_BYTES = 64;
+
+  private final ByteBuffer bytes;
+
+  private DelimitedText(ByteBuffer bytes) {
+    this.bytes = bytes;
+  }
+
+  /** Wraps the remaining bytes of the buffer; later position changes do not affect the view. */
+  public static DelimitedText of(ByteBuffer bytes) {
+    return new DelimitedText(bytes.slice());
+  }
+
+  /**
+   * Splits the file into at least {@code parts} ranges aligned to delimiters, adding more ranges
+   * when the file is too large for each to fit in one mapping.
+   */
+  public static List<DelimitedText> split(Path file, int parts) throws IOException {
+    return split(file, parts, MAX_MAPPED_BYTES);
+  }
+
+  static List<DelimitedText> split(Path file, int parts, long maxMappedBytes) throws IOException {
+    if (parts <= 0) {
+      throw new IllegalArgumentException("Number of parts must be positive");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      int ranges = (int) Math.max(parts, (size + maxMappedBytes - 1) / maxMappedBytes);
+
+      List<DelimitedText> texts = new ArrayList<>(ranges);
+      long from = 0;
+      for (int i = 1; i <= ranges; i++) {
+        long to = i == ranges ? size : Math.max(from, alignToDelimiter(channel, size * i / ranges));
+        texts.add(
+            new DelimitedText(
+                to == from
+                    ? ByteBuffer.allocate(0)
+                    : channel.map(FileChannel.MapMode.READ_ONLY, from, to - from)));
+        from = to;
+      }
+      return texts;
+    }
+  }
+
+  /**
+   * Maps the tokens that start in {@code length} bytes of the file from {@code offset}, moving both
+   * ends to token starts the way {@link #split(Path, int)} does, so a node can map its own share of
+   * a file without the coordinator reading it.
+   */
+  public static DelimitedText map(Path file, long offset, long length) throws IOException {
+    if (offset < 0 || length < 0) {
+      throw new IllegalArgumentException("File range must not be negative");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long from = Math.min(alignToDelimiter(channel, offset), channel.size());
+      long to =
+          Math.max(from, alignToDelimiter(channel, Math.min(offset + length, channel.size())));
+      if (to - from > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("File range is too large for one mapping");
+      }
+      return new DelimitedText(
+          to == from
+              ? ByteBuffer.allocate(0)
+              : channel.map(FileChannel.MapMode.READ_ONLY, from, to - from));
+    }
+  }
+
+  public int byteSize() {
+    return bytes.limit();
+  }
+
+  /** Read-only view of the window's bytes, positioned at its start. */
+  public ByteBuffer asByteBuffer() {
+    return bytes.asReadOnlyBuffer();
+  }
+
+  /** Splits the window into at most {@code parts} non-empty windows that end on delimiters. */
+  public List<DelimitedText> split(int parts) {
+    if (parts <= 0) {
+      throw new IllegalArgumentException("Number of parts must be positive");
+    }
+    int size = bytes.limit();
+    List<DelimitedText> texts = new ArrayList<>(Math.min(parts, size));
+    int from = 0;
+    for (int i = 1; i <= parts && from < size; i++) {
+      int to =
+          i == parts ? size : Math.max(from, alignToDelimiter((int) ((long) size * i / parts)));
+      if (to > from) {
+        texts.add(new DelimitedText(bytes.slice(from, to - from)));
+      }
+      from = to;
+    }
+    return texts;
+  }
+
+  /** Parses every integer in the window in order. */
+  public void forEach(IntConsumer consumer) {
+    int end = bytes.limit();
+    long value = 0;
+    boolean negative = false;
+    boolean inNumber = false;
+    for (int i = 0; i < end; i++) {
+      byte b = bytes.get(i);
+      if (b >= '0' && b <= '9') {
+        value = value * 10 + (b - '0');
+        if (value > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) {
+          throw new NumberFormatException("Integer out of range at byte " + i);
+        }
+        inNumber = true;
+      } else if (b == '-' && !negative && !inNumber) {
+        negative = true;
+      } else if (isDelimiter(b)) {
+        if (negative && !inNumber) {
+          throw new NumberFormatException("Dangling '-' at byte " + i);
+        }
+        if (inNumber) {
+          consumer.accept((int) (negative ? -value : value));
+        }
+        value = 0;
+        negative = false;
+        inNumber = false;
+      } else {
+        throw new NumberFormatException("Unexpected character '" + (char) b + "' at byte " + i);
+      }
+    }
+    if (inNumber) {
+      consumer.accept((int) (negative ? -value : value));
+    } else if (negative) {
+      throw new NumberFormatException("Dangling '-' at end of input");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "DelimitedText(bytes=" + bytes.limit() + ")";
+  }
+
+  private static boolean isDelimiter(byte b) {
+    return b == ',' || b == '\n' || b == '\r' || b == ' ' || b == '\t';
+  }
+
+  /** First position at or after {@code position} that starts a token or ends the window. */
+  private int alignToDelimiter(int position) {
+    if (position == 0) {
+      return 0;
+    }
+    for (int i = position - 1; i < bytes.limit(); i++) {
+      if (isDelimiter(bytes.get(i))) {
+        return i + 1;
+      }
+    }
+    return bytes.limit();
+  }
+
+  /** First position at or after {@code position} that starts a token or ends the file. */
+  private static long alignToDelimiter(FileChannel channel, long position) throws IOException {
+    if (position == 0) {
+      return 0;
+    }
+    ByteBuffer window = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+    long scanned = position - 1;
+    while (true) {
+      window.clear();
+      int read = channel.read(window, scanned);
+      if (read <= 0) {
+        return channel.size();
+      }
+      for (int i = 0; i < read; i++) {
+        if (isDelimiter(window.get(i))) {
+          return scanned + i + 1;
+        }
+      }
+      scanned += read;
+    }
+  }
+}
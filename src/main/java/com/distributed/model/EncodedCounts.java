@@ -0,0 +1,271 @@
+package com.distributed.model;
+
+import com.distributed.util.IntLongConsumer;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.MergingCursor;
+import com.distributed.util.Varint;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import lombok.Getter;
+
+/**
+ * Columnar (key, count) pairs in ascending key order. Keys are stored as varint gaps from the
+ * previous key; counts are bit-packed in blocks of {@value #BLOCK_SIZE}, each block using the width
+ * of its largest count. Both columns are decoded as a stream, so results can be merged through
+ * {@link #open} cursors without building a table.
+ */
+public final class EncodedCounts {
+  static final int BLOCK_SIZE = 128;
+
+  @Getter private final ResultCodec codec;
+  @Getter private final long entries;
+  private final byte[] keyColumn;
+  private final byte[] countColumn;
+
+  private EncodedCounts(ResultCodec codec, long entries, byte[] keyColumn, byte[] countColumn) {
+    this.codec = codec;
+    this.entries = entries;
+    this.keyColumn = keyColumn;
+    this.countColumn = countColumn;
+  }
+
+  /** Drains a key-ordered cursor; keys must be strictly ascending and counts non-negative. */
+  public static EncodedCounts encode(KeyCountCursor source, ResultCodec codec) throws IOException {
+    try (Writer writer = new Writer(codec)) {
+      while (source.next()) {
+        writer.accept(source.key(), source.count());
+      }
+      return writer.finish();
+    }
+  }
+
+  /** Sums the inputs into one encoding by a streaming merge of their key columns. */
+  public static EncodedCounts merge(List<EncodedCounts> inputs, ResultCodec codec)
+      throws IOException {
+    List<KeyCountCursor> cursors = new ArrayList<>(inputs.size());
+    for (EncodedCounts input : inputs) {
+      cursors.add(input.open());
+    }
+    try (MergingCursor merged = new MergingCursor(cursors)) {
+      return encode(merged, codec);
+    }
+  }
+
+  /** Size of both columns as stored or sent, in bytes. */
+  public long encodedBytes() {
+    return (long) keyColumn.length + countColumn.length;
+  }
+
+  public KeyCountCursor open() {
+    DataInputStream keys = new DataInputStream(decompress(keyColumn));
+    InputStream counts = decompress(countColumn);
+    return new KeyCountCursor() {
+      private final long[] block = new long[BLOCK_SIZE];
+      private long remaining = entries;
+      private int index = BLOCK_SIZE;
+      private long key = Integer.MIN_VALUE;
+
+      @Override
+      public boolean next() throws IOException {
+        if (remaining == 0) {
+          return false;
+        }
+        if (index == BLOCK_SIZE) {
+          unpack(counts, block, (int) Math.min(remaining, BLOCK_SIZE));
+          index = 0;
+        }
+        key += Varint.readUnsigned(keys);
+        index++;
+        remaining--;
+        return true;
+      }
+
+      @Override
+      public int key() {
+        return (int) key;
+      }
+
+      @Override
+      public long count() {
+        return block[index - 1];
+      }
+
+      @Override
+      public void close() throws IOException {
+        keys.close();
+        counts.close();
+      }
+    };
+  }
+
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeByte(codec.ordinal());
+    Varint.writeUnsigned(out, entries);
+    Varint.writeUnsigned(out, keyColumn.length);
+    out.write(keyColumn);
+    Varint.writeUnsigned(out, countColumn.length);
+    out.write(countColumn);
+  }
+
+  public static EncodedCounts readFrom(DataInput in) throws IOException {
+    int codec = in.readUnsignedByte();
+    if (codec >= ResultCodec.values().length) {
+      throw new IOException("Unknown result codec " + codec);
+    }
+    long entries = Varint.readUnsigned(in);
+    byte[] keyColumn = new byte[Math.toIntExact(Varint.readUnsigned(in))];
+    in.readFully(keyColumn);
+    byte[] countColumn = new byte[Math.toIntExact(Varint.readUnsigned(in))];
+    in.readFully(countColumn);
+    return new EncodedCounts(ResultCodec.values()[codec], entries, keyColumn, countColumn);
+  }
+
+  /**
+   * Encodes pairs pushed in strictly ascending key order, for producers that cannot offer a cursor.
+   * Close it if {@link #finish} is never reached.
+   */
+  public static final class Writer implements IntLongConsumer, Closeable {
+    private final ResultCodec codec;
+    private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream countBytes = new ByteArrayOutputStream();
+    private final Deflater keyDeflater;
+    private final Deflater countDeflater;
+    private final DataOutputStream keys;
+    private final OutputStream counts;
+    private final long[] block = new long[BLOCK_SIZE];
+    private int filled;
+    private long previous = Integer.MIN_VALUE;
+    private long entries;
+
+    public Writer(ResultCodec codec) {
+      this.codec = codec;
+      this.keyDeflater = codec == ResultCodec.DEFLATE ? new Deflater(Deflater.BEST_SPEED) : null;
+      this.countDeflater = codec == ResultCodec.DEFLATE ? new Deflater(Deflater.BEST_SPEED) : null;
+      this.keys = new DataOutputStream(compress(keyBytes, keyDeflater));
+      this.counts = compress(countBytes, countDeflater);
+    }
+
+    @Override
+    public void accept(int key, long count) {
+      if (entries > 0 && key <= previous) {
+        throw new IllegalArgumentException("Keys must be strictly ascending");
+      }
+      if (count < 0) {
+        throw new IllegalArgumentException("Counts must not be negative");
+      }
+      try {
+        Varint.writeUnsigned(keys, key - previous);
+        previous = key;
+        block[filled++] = count;
+        entries++;
+        if (filled == BLOCK_SIZE) {
+          pack(block, filled, counts);
+          filled = 0;
+        }
+      } catch (IOException e) {
+        // Only in-memory streams are written
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /** Flushes the last block and returns everything written so far. */
+    public EncodedCounts finish() throws IOException {
+      if (filled > 0) {
+        pack(block, filled, counts);
+        filled = 0;
+      }
+      keys.close();
+      counts.close();
+      return new EncodedCounts(codec, entries, keyBytes.toByteArray(), countBytes.toByteArray());
+    }
+
+    @Override
+    public void close() {
+      if (keyDeflater != null) {
+        keyDeflater.end();
+        countDeflater.end();
+      }
+    }
+  }
+
+  private static OutputStream compress(ByteArrayOutputStream out, Deflater deflater) {
+    return deflater == null ? out : new DeflaterOutputStream(out, deflater, 1 << 12);
+  }
+
+  private InputStream decompress(byte[] column) {
+    InputStream in = new ByteArrayInputStream(column);
+    return codec == ResultCodec.DEFLATE ? new InflaterInputStream(in) : in;
+  }
+
+  // Block layout: one byte of bit width, then the values packed low bits first
+  private static void pack(long[] values, int n, OutputStream out) throws IOException {
+    long max = 0;
+    for (int i = 0; i < n; i++) {
+      max |= values[i];
+    }
+    int width = Long.SIZE - Long.numberOfLeadingZeros(max);
+    out.write(width);
+    long buffer = 0;
+    int buffered = 0;
+    for (int i = 0; i < n; i++) {
+      int written = 0;
+      while (written < width) {
+        int take = Math.min(width - written, Long.SIZE - buffered);
+        buffer |= ((values[i] >>> written) & mask(take)) << buffered;
+        buffered += take;
+        written += take;
+        while (buffered >= Byte.SIZE) {
+          out.write((int) buffer);
+          buffer >>>= Byte.SIZE;
+          buffered -= Byte.SIZE;
+        }
+      }
+    }
+    if (buffered > 0) {
+      out.write((int) buffer);
+    }
+  }
+
+  private static void unpack(InputStream in, long[] values, int n) throws IOException {
+    int width = in.read();
+    if (width < 0 || width > Long.SIZE) {
+      throw new IOException("Corrupt count block width " + width);
+    }
+    byte[] packed = in.readNBytes((int) (((long) n * width + Byte.SIZE - 1) / Byte.SIZE));
+    if (packed.length * (long) Byte.SIZE < (long) n * width) {
+      throw new IOException("Truncated count block");
+    }
+    long bit = 0;
+    for (int i = 0; i < n; i++) {
+      long value = 0;
+      int read = 0;
+      while (read < width) {
+        int offset = (int) (bit & 7);
+        int take = Math.min(Byte.SIZE - offset, width - read);
+        value |=
+            (long) (((packed[(int) (bit >>> 3)] & 0xFF) >>> offset) & ((1 << take) - 1)) << read;
+        read += take;
+        bit += take;
+      }
+      values[i] = value;
+    }
+  }
+
+  private static long mask(int bits) {
+    return bits == Long.SIZE ? -1L : (1L << bits) - 1;
+  }
+}
@@ -0,0 +1,47 @@
+package com.distributed.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Byte range of an input file that a node maps from its own disk. {@code path} is relative to the
+ * node's data root and resolved there, so the coordinator never opens the file. Text ranges hold
+ * the tokens that start inside them: the node moves both ends forward to the next token start, as
+ * {@link DelimitedText#split} does, so adjacent ranges never share or lose a token.
+ */
+@Value
+public class FileRange {
+  String path;
+  long offset;
+  long length;
+  InputFormat format;
+
+  /**
+   * Cuts a file of {@code size} bytes into at least {@code parts} ranges, adding more ranges when
+   * the file is too large for each to fit in one mapping; int32 ranges stay on value boundaries.
+   */
+  public static List<FileRange> split(String path, long size, InputFormat format, int parts) {
+    if (parts <= 0) {
+      throw new IllegalArgumentException("Number of parts must be positive");
+    }
+    int unit = format == InputFormat.INT32_LE ? Integer.BYTES : 1;
+    if (size % unit != 0) {
+      throw new IllegalArgumentException(
+          path + " is not a whole number of int32 values (" + size + " bytes)");
+    }
+    long maxMappedBytes =
+        format == InputFormat.INT32_LE
+            ? MappedIntFile.MAX_MAPPED_BYTES
+            : DelimitedText.MAX_MAPPED_BYTES;
+    long units = size / unit;
+    int ranges = (int) Math.max(parts, Math.ceilDiv(size, maxMappedBytes));
+    List<FileRange> fileRanges = new ArrayList<>(ranges);
+    for (int i = 0; i < ranges; i++) {
+      long from = units * i / ranges * unit;
+      long to = units * (i + 1) / ranges * unit;
+      fileRanges.add(new FileRange(path, from, to - from, format));
+    }
+    return fileRanges;
+  }
+}
@@ -0,0 +1,16 @@
+package com.distributed.model;
+
+import lombok.Value;
+
+/**
+ * Approximate kth-frequent answer. The true frequency of {@code number} lies in [lowerBound,
+ * upperBound] with probability {@code confidence} (1.0 for deterministic bounds).
+ */
+@Value
+public class FrequencyEstimate {
+  int number;
+  long estimatedFrequency;
+  long lowerBound;
+  long upperBound;
+  double confidence;
+}
@@ -7,16 +7,21 @@ import lombok.Data;
 @AllArgsConstructor
 public class FrequencyPair implements Comparable<FrequencyPair> {
   private int number;
-  private int frequency;
+  private long frequency;
 
   @Override
   public int compareTo(FrequencyPair other) {
+    return compare(this.number, this.frequency, other.number, other.frequency);
+  }
+
+  // Primitive form of the ordering so hot paths can rank (number, frequency) without boxing
+  public static int compare(int number, long frequency, int otherNumber, long otherFrequency) {
     // First compare by frequency in descending order
-    int freqCompare = Integer.compare(other.frequency, this.frequency);
+    int freqCompare = Long.compare(otherFrequency, frequency);
     if (freqCompare != 0) {
       return freqCompare;
     }
     // If frequencies are equal, compare by number in ascending order
-    return Integer.compare(this.number, other.number);
+    return Integer.compare(number, otherNumber);
   }
 }
@@ -0,0 +1,9 @@
+package com.distributed.model;
+
+/** Encoding of an input file passed to the coordinator. */
+public enum InputFormat {
+  /** Raw little-endian int32 values, counted in place from the mapping. */
+  INT32_LE,
+  /** ASCII integers separated by commas or whitespace, parsed by each node from the mapping. */
+  DELIMITED_TEXT
+}
@@ -0,0 +1,94 @@
+package com.distributed.model;
+
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only offset/length window over an int[] or an {@link IntBuffer}. Slicing never copies, so a
+ * large input can be split across nodes while every partition still points at the same storage.
+ */
+public final class IntSlice {
+  private static final IntSlice EMPTY = new IntSlice(new int[0], null, 0, 0);
+
+  private final int[] array;
+  private final IntBuffer buffer;
+  private final int offset;
+  private final int length;
+
+  private IntSlice(int[] array, IntBuffer buffer, int offset, int length) {
+    this.array = array;
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  public static IntSlice empty() {
+    return EMPTY;
+  }
+
+  public static IntSlice of(int[] data) {
+    return of(data, 0, data.length);
+  }
+
+  public static IntSlice of(int[] data, int offset, int length) {
+    Objects.checkFromIndexSize(offset, length, data.length);
+    return new IntSlice(data, null, offset, length);
+  }
+
+  /** Wraps the remaining elements of the buffer; later position changes do not affect the view. */
+  public static IntSlice of(IntBuffer data) {
+    if (data.hasArray()) {
+      return new IntSlice(
+          data.array(), null, data.arrayOffset() + data.position(), data.remaining());
+    }
+    return new IntSlice(null, data, data.position(), data.remaining());
+  }
+
+  /** Unboxes a list once into a fresh array, for callers that only have boxed input. */
+  public static IntSlice copyOf(List<Integer> data) {
+    int[] values = new int[data.size()];
+    int i = 0;
+    for (Integer value : data) {
+      values[i++] = value;
+    }
+    return new IntSlice(values, null, 0, values.length);
+  }
+
+  public int size() {
+    return length;
+  }
+
+  public boolean isEmpty() {
+    return length == 0;
+  }
+
+  public int get(int index) {
+    Objects.checkIndex(index, length);
+    return array != null ? array[offset + index] : buffer.get(offset + index);
+  }
+
+  public IntSlice slice(int from, int sliceLength) {
+    Objects.checkFromIndexSize(from, sliceLength, length);
+    return new IntSlice(array, buffer, offset + from, sliceLength);
+  }
+
+  public void forEach(IntConsumer consumer) {
+    int end = offset + length;
+    if (array != null) {
+      for (int i = offset; i < end; i++) {
+        consumer.accept(array[i]);
+      }
+    } else {
+      for (int i = offset; i < end; i++) {
+        consumer.accept(buffer.get(i));
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "IntSlice(offset=" + offset + ", length=" + length + ")";
+  }
+}
@@ -0,0 +1,91 @@
+package com.distributed.model;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory-maps a file of little-endian int32 values as {@link IntSlice} views. Values are read
+ * straight from the page cache, so the file is never copied onto the heap.
+ */
+public final class MappedIntFile {
+  /** Largest int-aligned range a single mapping can cover. */
+  static final long MAX_MAPPED_BYTES = (long) (Integer.MAX_VALUE / Integer.BYTES) * Integer.BYTES;
+
+  private MappedIntFile() {}
+
+  /**
+   * Splits the file into at least {@code parts} contiguous ranges on int boundaries, adding more
+   * ranges when the file is too large for each to fit in one mapping.
+   */
+  public static List<IntSlice> split(Path file, int parts) throws IOException {
+    return split(file, parts, MAX_MAPPED_BYTES);
+  }
+
+  /** Maps {@code length} bytes of the file from {@code offset}; both must be whole int32 values. */
+  public static IntSlice map(Path file, long offset, long length) throws IOException {
+    if (offset < 0
+        || length < 0
+        || offset % Integer.BYTES != 0
+        || length % Integer.BYTES != 0
+        || length > MAX_MAPPED_BYTES) {
+      throw new IllegalArgumentException(
+          "File range must be int-aligned and fit in one mapping: " + offset + "+" + length);
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (offset + length > channel.size()) {
+        throw new IllegalArgumentException(
+            "Range " + offset + "+" + length + " is past the end of " + file);
+      }
+      if (length == 0) {
+        return IntSlice.empty();
+      }
+      return IntSlice.of(
+          channel
+              .map(FileChannel.MapMode.READ_ONLY, offset, length)
+              .order(ByteOrder.LITTLE_ENDIAN)
+              .asIntBuffer());
+    }
+  }
+
+  static List<IntSlice> split(Path file, int parts, long maxMappedBytes) throws IOException {
+    if (parts <= 0) {
+      throw new IllegalArgumentException("Number of parts must be positive");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long bytes = channel.size();
+      if (bytes % Integer.BYTES != 0) {
+        throw new IllegalArgumentException(
+            file + " is not a whole number of int32 values (" + bytes + " bytes)");
+      }
+      long values = bytes / Integer.BYTES;
+      long maxValuesPerRange = maxMappedBytes / Integer.BYTES;
+      int ranges = (int) Math.max(parts, (values + maxValuesPerRange - 1) / maxValuesPerRange);
+
+      // Mappings stay valid after the channel is closed
+      List<IntSlice> slices = new ArrayList<>(ranges);
+      for (int i = 0; i < ranges; i++) {
+        long from = values * i / ranges;
+        long to = values * (i + 1) / ranges;
+        if (from == to) {
+          slices.add(IntSlice.empty());
+          continue;
+        }
+        slices.add(
+            IntSlice.of(
+                channel
+                    .map(
+                        FileChannel.MapMode.READ_ONLY,
+                        from * Integer.BYTES,
+                        (to - from) * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer()));
+      }
+      return slices;
+    }
+  }
+}
@@ -1,11 +1,52 @@
 package com.distributed.model;
 
+import com.distributed.util.IntCountTable;
+import com.distributed.util.KeyCountCursor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import lombok.Data;
 
 @Data
 public class ProcessingResult {
   private int nodeId;
-  private Map<Integer, Integer> frequencies;
+  private IntCountTable counts;
+  // Set instead of counts when the node exceeded its memory threshold
+  private SortedRun spilledRun;
+  // Set instead of counts when the result arrived in columnar form from a remote node
+  private EncodedCounts encoded;
   private long processingTimeMs;
+
+  public boolean isSpilled() {
+    return spilledRun != null;
+  }
+
+  public boolean isEncoded() {
+    return encoded != null;
+  }
+
+  /** Key-ordered cursor over this node's counts, whether held in memory, encoded or spilled. */
+  public KeyCountCursor openCursor() throws IOException {
+    if (isSpilled()) {
+      return spilledRun.open();
+    }
+    return isEncoded() ? encoded.open() : KeyCountCursor.sorted(counts);
+  }
+
+  /** Boxed view of the counts; loads a spilled run into memory, so only for small results. */
+  public Map<Integer, Integer> getFrequencies() {
+    if (!isSpilled() && !isEncoded()) {
+      return counts.asMap();
+    }
+    long entries = isSpilled() ? spilledRun.getEntries() : encoded.getEntries();
+    IntCountTable loaded = new IntCountTable((int) Math.min(entries, 1 << 20));
+    try (KeyCountCursor cursor = openCursor()) {
+      while (cursor.next()) {
+        loaded.add(cursor.key(), Math.toIntExact(cursor.count()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read counts of node " + nodeId, e);
+    }
+    return loaded.asMap();
+  }
 }
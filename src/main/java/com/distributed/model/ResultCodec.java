@@ -0,0 +1,9 @@
+package com.distributed.model;
+
+/** Block compression applied to the columns of {@link EncodedCounts}. */
+public enum ResultCodec {
+  /** Columns are stored as encoded. */
+  NONE,
+  /** Each column is compressed with {@link java.util.zip.Deflater} at its fastest level. */
+  DEFLATE
+}
@@ -0,0 +1,13 @@
+package com.distributed.model;
+
+import com.distributed.util.CountMinSketch;
+import com.distributed.util.IntLongCountTable;
+import lombok.Data;
+
+@Data
+public class SketchResult {
+  private int nodeId;
+  private CountMinSketch sketch;
+  private IntLongCountTable candidates;
+  private long processingTimeMs;
+}
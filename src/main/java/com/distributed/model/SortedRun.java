@@ -0,0 +1,92 @@
+package com.distributed.model;
+
+import com.distributed.util.KeyCountCursor;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.Getter;
+
+/** Temporary file of (key, count) int pairs in ascending key order, written by a spilling node. */
+@Getter
+public class SortedRun {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final Path path;
+  private final long entries;
+
+  private SortedRun(Path path, long entries) {
+    this.path = path;
+    this.entries = entries;
+  }
+
+  /** Drains the cursor into a new run file; counts must fit in an int. */
+  public static SortedRun write(Path directory, String prefix, KeyCountCursor source)
+      throws IOException {
+    Path path =
+        directory == null
+            ? Files.createTempFile(prefix, ".run")
+            : Files.createTempFile(directory, prefix, ".run");
+    long entries = 0;
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+      while (source.next()) {
+        out.writeInt(source.key());
+        out.writeInt(Math.toIntExact(source.count()));
+        entries++;
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(path);
+      throw e;
+    }
+    return new SortedRun(path, entries);
+  }
+
+  public KeyCountCursor open() throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+    return new KeyCountCursor() {
+      private int key;
+      private long count;
+
+      @Override
+      public boolean next() throws IOException {
+        try {
+          key = in.readInt();
+        } catch (EOFException e) {
+          return false;
+        }
+        count = in.readInt();
+        return true;
+      }
+
+      @Override
+      public int key() {
+        return key;
+      }
+
+      @Override
+      public long count() {
+        return count;
+      }
+
+      @Override
+      public void close() throws IOException {
+        in.close();
+      }
+    };
+  }
+
+  public void delete() {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to delete spill run " + path, e);
+    }
+  }
+}
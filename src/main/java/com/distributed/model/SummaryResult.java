@@ -0,0 +1,11 @@
+package com.distributed.model;
+
+import com.distributed.util.SpaceSavingSummary;
+import lombok.Data;
+
+@Data
+public class SummaryResult {
+  private int nodeId;
+  private SpaceSavingSummary summary;
+  private long processingTimeMs;
+}
@@ -0,0 +1,36 @@
+package com.distributed.model;
+
+import java.time.Duration;
+import lombok.Value;
+
+/**
+ * Window shape for windowed frequency queries. Counts are kept per bucket of {@code bucketMillis};
+ * a window is the newest {@code bucketsPerWindow} buckets, so expiry drops whole buckets.
+ */
+@Value
+public class WindowSpec {
+  long bucketMillis;
+  int bucketsPerWindow;
+
+  /** Window of {@code size} that advances every {@code slide}; size must be a multiple of slide. */
+  public static WindowSpec sliding(Duration size, Duration slide) {
+    long sizeMillis = size.toMillis();
+    long slideMillis = slide.toMillis();
+    if (slideMillis <= 0 || sizeMillis < slideMillis) {
+      throw new IllegalArgumentException("Window size must be at least one positive slide");
+    }
+    if (sizeMillis % slideMillis != 0) {
+      throw new IllegalArgumentException("Window size must be a multiple of the slide");
+    }
+    return new WindowSpec(slideMillis, Math.toIntExact(sizeMillis / slideMillis));
+  }
+
+  /** Non-overlapping windows of {@code size}; queries see only the current window. */
+  public static WindowSpec tumbling(Duration size) {
+    return sliding(size, size);
+  }
+
+  public long bucketOf(long timestampMillis) {
+    return Math.floorDiv(timestampMillis, bucketMillis);
+  }
+}
@@ -0,0 +1,158 @@
+package com.distributed.node;
+
+import com.distributed.model.EncodedCounts;
+import com.distributed.model.ResultCodec;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.IntLongConsumer;
+import com.distributed.util.IntLongCountTable;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.MergingCursor;
+import com.distributed.util.Varint;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A node's running totals for a streaming session, double-buffered so snapshots never pause
+ * ingestion. New counts go into a delta table; a snapshot swaps in an empty delta and writes the
+ * base plus the frozen delta to disk in the background, then folds the frozen delta into the base.
+ * Only that fold, proportional to the keys touched since the previous snapshot, takes the lock.
+ *
+ * <p>Snapshots hold the input offset they cover followed by deflated {@link EncodedCounts}.
+ */
+public class CheckpointedCounts {
+  private static final int MAGIC = 0x4B435031; // "KCP1"
+
+  // Read-only while a snapshot is being written
+  private IntLongCountTable base;
+  private IntLongCountTable frozen;
+  private IntLongCountTable delta = new IntLongCountTable();
+
+  public CheckpointedCounts() {
+    this(new IntLongCountTable());
+  }
+
+  private CheckpointedCounts(IntLongCountTable base) {
+    this.base = base;
+  }
+
+  /** Table that new counts are added to; replaced by each snapshot. */
+  public synchronized IntLongCountTable delta() {
+    return delta;
+  }
+
+  public synchronized long get(int key) {
+    return base.get(key) + (frozen == null ? 0 : frozen.get(key)) + delta.get(key);
+  }
+
+  /**
+   * Visits the total of every key in {@code keys} under one acquisition of the lock, skipping the
+   * frozen table when no snapshot is being written.
+   */
+  public synchronized void forEachTotal(IntCountTable keys, IntLongConsumer consumer) {
+    if (frozen == null) {
+      keys.forEach((key, ignored) -> consumer.accept(key, base.get(key) + delta.get(key)));
+    } else {
+      keys.forEach(
+          (key, ignored) -> consumer.accept(key, base.get(key) + frozen.get(key) + delta.get(key)));
+    }
+  }
+
+  /** Visits the restored totals; only valid before any counts are added. */
+  public synchronized void forEachRestored(IntLongConsumer consumer) {
+    base.forEach(consumer);
+  }
+
+  public synchronized boolean isSnapshotting() {
+    return frozen != null;
+  }
+
+  /**
+   * Writes a snapshot of the current totals, labelled with {@code offset}, to {@code file} on
+   * {@code executor}. Callers must not add counts concurrently with this call itself, but may as
+   * soon as it returns.
+   */
+  public CompletableFuture<Void> snapshot(Path file, long offset, Executor executor) {
+    IntLongCountTable snapshotBase;
+    IntLongCountTable snapshotDelta;
+    synchronized (this) {
+      if (frozen != null) {
+        throw new IllegalStateException("A snapshot is already being written");
+      }
+      frozen = delta;
+      delta = new IntLongCountTable();
+      snapshotBase = base;
+      snapshotDelta = frozen;
+    }
+    return CompletableFuture.runAsync(
+            () -> {
+              try (MergingCursor totals =
+                  new MergingCursor(
+                      List.of(
+                          KeyCountCursor.sorted(snapshotBase),
+                          KeyCountCursor.sorted(snapshotDelta)))) {
+                write(file, offset, EncodedCounts.encode(totals, ResultCodec.DEFLATE));
+              } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write snapshot " + file, e);
+              }
+            },
+            executor)
+        .whenComplete((v, error) -> foldFrozen());
+  }
+
+  /** Loads a snapshot written by {@link #snapshot}. */
+  public static CheckpointedCounts restore(Path file) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " is not a counts snapshot");
+      }
+      Varint.readUnsigned(in);
+      EncodedCounts encoded = EncodedCounts.readFrom(in);
+      IntLongCountTable base = new IntLongCountTable((int) encoded.getEntries());
+      try (KeyCountCursor cursor = encoded.open()) {
+        while (cursor.next()) {
+          base.put(cursor.key(), cursor.count());
+        }
+      }
+      return new CheckpointedCounts(base);
+    }
+  }
+
+  /** Input offset a snapshot covers. */
+  public static long readOffset(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " is not a counts snapshot");
+      }
+      return Varint.readUnsigned(in);
+    }
+  }
+
+  private synchronized void foldFrozen() {
+    base.addAll(frozen);
+    frozen = null;
+  }
+
+  // Written beside the target and moved into place, so a crash never leaves a partial snapshot
+  private static void write(Path file, long offset, EncodedCounts counts) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(MAGIC);
+      Varint.writeUnsigned(out, offset);
+      counts.writeTo(out);
+    }
+    Files.move(
+        temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
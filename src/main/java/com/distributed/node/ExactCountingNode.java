@@ -0,0 +1,27 @@
+package com.distributed.node;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.ProcessingResult;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The exact-counting operations every node offers, whether it runs in process ({@link
+ * ProcessingNode}) or behind a {@link NodeServer} ({@link RemoteProcessingNode}).
+ */
+public interface ExactCountingNode {
+  default CompletableFuture<ProcessingResult> processData(DataPartition partition) {
+    return processData(partition, 0);
+  }
+
+  /**
+   * Counts the partition and, when {@code candidateLimit} is positive, reports only the local
+   * top-{@code candidateLimit} keys. Only valid when this node owns every occurrence of its keys.
+   */
+  CompletableFuture<ProcessingResult> processData(DataPartition partition, int candidateLimit);
+
+  /**
+   * Counts the partition and keeps the counts on this node to answer the rounds of the threshold
+   * top-k protocol. The caller must close the participant.
+   */
+  CompletableFuture<TopKParticipant> openParticipant(DataPartition partition);
+}
@@ -0,0 +1,112 @@
+package com.distributed.node;
+
+import com.distributed.model.ProcessingResult;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.IntLongConsumer;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.TopKSelector;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * In-process participant over a node's finished counts. Spilled counts stay on disk: rounds one and
+ * two scan the run, and round three merge-joins the sorted request against it.
+ */
+class LocalTopKParticipant implements TopKParticipant {
+  private final ProcessingResult counted;
+  private final Executor executor;
+  private final IntCountTable sentInRoundOne = new IntCountTable();
+
+  LocalTopKParticipant(ProcessingResult counted, Executor executor) {
+    this.counted = counted;
+    this.executor = executor;
+  }
+
+  @Override
+  public CompletableFuture<IntCountTable> localTopK(int k) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          TopKSelector selector = new TopKSelector(k);
+          forEachCount(selector);
+          IntCountTable top = new IntCountTable(selector.size());
+          selector.forEach((key, count) -> top.add(key, (int) count));
+          sentInRoundOne.addAll(top);
+          return top;
+        },
+        executor);
+  }
+
+  @Override
+  public CompletableFuture<IntCountTable> atLeast(int minCount) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          IntCountTable above = new IntCountTable();
+          forEachCount(
+              (key, count) -> {
+                if (count >= minCount && !sentInRoundOne.containsKey(key)) {
+                  above.add(key, (int) count);
+                }
+              });
+          return above;
+        },
+        executor);
+  }
+
+  @Override
+  public CompletableFuture<IntCountTable> countsOf(int[] keys) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          IntCountTable found = new IntCountTable(keys.length);
+          if (!counted.isSpilled()) {
+            IntCountTable counts = counted.getCounts();
+            for (int key : keys) {
+              if (counts.containsKey(key)) {
+                found.add(key, counts.get(key));
+              }
+            }
+            return found;
+          }
+          int[] sorted = keys.clone();
+          Arrays.sort(sorted);
+          try (KeyCountCursor cursor = counted.openCursor()) {
+            int i = 0;
+            while (i < sorted.length && cursor.next()) {
+              while (i < sorted.length && sorted[i] < cursor.key()) {
+                i++;
+              }
+              if (i < sorted.length && sorted[i] == cursor.key()) {
+                found.add(cursor.key(), (int) cursor.count());
+              }
+            }
+          } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spill run", e);
+          }
+          return found;
+        },
+        executor);
+  }
+
+  @Override
+  public void close() {
+    if (counted.isSpilled()) {
+      counted.getSpilledRun().delete();
+    }
+  }
+
+  private void forEachCount(IntLongConsumer consumer) {
+    if (!counted.isSpilled()) {
+      counted.getCounts().forEach(consumer);
+      return;
+    }
+    try (KeyCountCursor cursor = counted.openCursor()) {
+      while (cursor.next()) {
+        consumer.accept(cursor.key(), cursor.count());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read spill run", e);
+    }
+  }
+}
@@ -0,0 +1,292 @@
+package com.distributed.node;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.DelimitedText;
+import com.distributed.model.FileRange;
+import com.distributed.model.InputFormat;
+import com.distributed.model.MappedIntFile;
+import com.distributed.model.ProcessingResult;
+import com.distributed.model.ResultCodec;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.Varint;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves a {@link ProcessingNode} over TCP for {@link RemoteProcessingNode} clients. Each
+ * connection gets a virtual thread and may carry any number of requests, and holds at most one
+ * threshold top-k participant at a time. Partitions that name a file range are mapped from this
+ * machine's disk, so the file never crosses the network.
+ *
+ * <p>File requests are confined to the server's data root: paths must be relative to it and may not
+ * leave it, through {@code ..} or symbolic links. A server without a data root refuses them.
+ *
+ * <p>Run standalone with {@code java com.distributed.node.NodeServer <port> <memoryThreshold>
+ * [dataRoot]}.
+ */
+@Slf4j
+public class NodeServer implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final ProcessingNode node;
+  private final ServerSocket serverSocket;
+  // Real path of the only directory file requests may read; null refuses them
+  private final Path dataRoot;
+  private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+
+  private NodeServer(ProcessingNode node, ServerSocket serverSocket, Path dataRoot) {
+    this.node = node;
+    this.serverSocket = serverSocket;
+    this.dataRoot = dataRoot;
+  }
+
+  /** Starts a server that only counts partitions sent over the wire, refusing file requests. */
+  public static NodeServer start(ProcessingNode node, InetSocketAddress address)
+      throws IOException {
+    return start(node, address, null);
+  }
+
+  /**
+   * Binds {@code address} (port 0 picks a free port) and starts accepting connections; file
+   * requests are served from {@code dataRoot}, which must exist, or refused if it is null.
+   */
+  public static NodeServer start(ProcessingNode node, InetSocketAddress address, Path dataRoot)
+      throws IOException {
+    Path root = dataRoot == null ? null : dataRoot.toRealPath();
+    if (root != null && !Files.isDirectory(root)) {
+      throw new IllegalArgumentException("Data root " + dataRoot + " is not a directory");
+    }
+    ServerSocket serverSocket = new ServerSocket();
+    serverSocket.bind(address);
+    NodeServer server = new NodeServer(node, serverSocket, root);
+    Thread.ofPlatform()
+        .daemon()
+        .name("kth-node-server-" + serverSocket.getLocalPort())
+        .start(server::acceptLoop);
+    log.info("Node server listening on {}", serverSocket.getLocalSocketAddress());
+    return server;
+  }
+
+  public InetSocketAddress getAddress() {
+    return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    connections.shutdownNow();
+  }
+
+  private void acceptLoop() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.execute(() -> serve(socket));
+      } catch (SocketException e) {
+        // Closed while waiting in accept
+      } catch (IOException e) {
+        log.warn("Failed to accept connection", e);
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    Connection connection = new Connection();
+    try (socket;
+        connection;
+        DataInputStream in =
+            new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE))) {
+      if (in.readInt() != NodeWire.MAGIC) {
+        throw new IOException("Not a node protocol client: " + socket.getRemoteSocketAddress());
+      }
+      while (true) {
+        byte request;
+        try {
+          request = in.readByte();
+        } catch (EOFException e) {
+          return;
+        }
+        switch (request) {
+          case NodeWire.PROCESS -> handleProcess(in, out);
+          case NodeWire.OPEN_PARTICIPANT -> connection.open(NodeWire.readRequest(in), out);
+          case NodeWire.LOCAL_TOP_K ->
+              connection.round(out, p -> p.localTopK((int) Varint.readUnsigned(in)));
+          case NodeWire.AT_LEAST ->
+              connection.round(out, p -> p.atLeast((int) Varint.readUnsigned(in)));
+          case NodeWire.COUNTS_OF -> connection.round(out, p -> p.countsOf(NodeWire.readKeys(in)));
+          case NodeWire.FILE_SIZE -> handleFileSize(in.readUTF(), out);
+          case NodeWire.CLOSE_PARTICIPANT -> {
+            connection.close();
+            NodeWire.writeOk(out);
+          }
+          default -> throw new IOException("Unknown request " + request);
+        }
+        out.flush();
+      }
+    } catch (IOException e) {
+      log.warn("Connection from {} failed", socket.getRemoteSocketAddress(), e);
+    }
+  }
+
+  private void handleProcess(DataInputStream in, DataOutputStream out) throws IOException {
+    NodeWire.Request request = NodeWire.readRequest(in);
+    ProcessingResult result;
+    try {
+      result = node.processData(mapLocally(request.partition()), request.candidateLimit()).join();
+    } catch (IOException | RuntimeException e) {
+      log.error("Processing failed", e);
+      NodeWire.writeError(out, e);
+      return;
+    }
+    try {
+      NodeWire.writeResult(out, result, request.codec());
+    } finally {
+      if (result.isSpilled()) {
+        result.getSpilledRun().delete();
+      }
+    }
+  }
+
+  /** Replaces a file range with a mapping of that range of the file under the data root. */
+  private DataPartition mapLocally(DataPartition partition) throws IOException {
+    FileRange range = partition.getFileRange();
+    if (range == null) {
+      return partition;
+    }
+    Path file = resolve(range.getPath());
+    DataPartition mapped = new DataPartition();
+    mapped.setNodeId(partition.getNodeId());
+    if (range.getFormat() == InputFormat.DELIMITED_TEXT) {
+      mapped.setText(DelimitedText.map(file, range.getOffset(), range.getLength()));
+    } else {
+      mapped.setData(MappedIntFile.map(file, range.getOffset(), range.getLength()));
+    }
+    return mapped;
+  }
+
+  /** Answers with the size of a file under the data root, -1 if absent, or an error if refused. */
+  private void handleFileSize(String path, DataOutputStream out) throws IOException {
+    long size;
+    try {
+      Path file = resolve(path);
+      size = Files.isRegularFile(file) ? Files.size(file) : -1;
+    } catch (IOException e) {
+      log.warn("Refused size of {}: {}", path, e.getMessage());
+      NodeWire.writeError(out, e);
+      return;
+    }
+    NodeWire.writeSize(out, size);
+  }
+
+  /** The file a client path names under the data root; throws if it would leave the root. */
+  private Path resolve(String path) throws IOException {
+    if (dataRoot == null) {
+      throw new IOException("Node server has no data root to read files from");
+    }
+    Path relative;
+    try {
+      relative = Path.of(path);
+    } catch (InvalidPathException e) {
+      throw new IOException("Invalid path " + path, e);
+    }
+    Path file = dataRoot.resolve(relative).normalize();
+    if (relative.isAbsolute() || !file.startsWith(dataRoot)) {
+      throw new IOException(path + " is outside the data root");
+    }
+    // A symbolic link inside the root must not lead out of it either
+    if (Files.exists(file) && !file.toRealPath().startsWith(dataRoot)) {
+      throw new IOException(path + " is outside the data root");
+    }
+    return file;
+  }
+
+  /** Reads a round's arguments and starts it on the participant. */
+  @FunctionalInterface
+  private interface Round {
+    CompletableFuture<IntCountTable> start(TopKParticipant participant) throws IOException;
+  }
+
+  /** The threshold top-k participant a connection has open, released when it closes. */
+  private final class Connection implements Closeable {
+    private TopKParticipant participant;
+    private ResultCodec codec = ResultCodec.NONE;
+
+    void open(NodeWire.Request request, DataOutputStream out) throws IOException {
+      close();
+      try {
+        participant = node.openParticipant(mapLocally(request.partition())).join();
+        codec = request.codec();
+      } catch (IOException | RuntimeException e) {
+        log.error("Counting for threshold top-k failed", e);
+        NodeWire.writeError(out, e);
+        return;
+      }
+      NodeWire.writeOk(out);
+    }
+
+    void round(DataOutputStream out, Round round) throws IOException {
+      if (participant == null) {
+        throw new IOException("Threshold top-k round without an open participant");
+      }
+      // Arguments are read before anything can fail, so the stream stays in step
+      CompletableFuture<IntCountTable> answer = round.start(participant);
+      IntCountTable table;
+      try {
+        table = answer.join();
+      } catch (RuntimeException e) {
+        log.error("Threshold top-k round failed", e);
+        NodeWire.writeError(out, e);
+        return;
+      }
+      NodeWire.writeTable(out, table, codec);
+    }
+
+    @Override
+    public void close() {
+      if (participant != null) {
+        participant.close();
+        participant = null;
+      }
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length != 2 && args.length != 3) {
+      System.err.println("Usage: NodeServer <port> <memoryThresholdBytes> [dataRoot]");
+      System.exit(2);
+    }
+    int port = Integer.parseInt(args[0]);
+    ProcessingNode node = new ProcessingNode(port, Long.parseLong(args[1]));
+    Path dataRoot = args.length == 3 ? Path.of(args[2]) : null;
+    NodeServer server = start(node, new InetSocketAddress(port), dataRoot);
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  try {
+                    server.close();
+                  } catch (IOException e) {
+                    log.warn("Failed to close node server", e);
+                  }
+                }));
+    Thread.currentThread().join();
+  }
+}
@@ -0,0 +1,216 @@
+package com.distributed.node;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.DelimitedText;
+import com.distributed.model.EncodedCounts;
+import com.distributed.model.FileRange;
+import com.distributed.model.InputFormat;
+import com.distributed.model.IntSlice;
+import com.distributed.model.ProcessingResult;
+import com.distributed.model.ResultCodec;
+import com.distributed.model.SortedRun;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.Varint;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Binary wire format between {@link RemoteProcessingNode} and {@link NodeServer}. Partition values
+ * are zigzag varints; results are sent as {@link EncodedCounts} in the codec the client asked for.
+ *
+ * <p>A {@link #OPEN_PARTICIPANT} request counts a partition and keeps the counts on the server for
+ * the rest of the connection, which then carries the {@link #LOCAL_TOP_K}, {@link #AT_LEAST} and
+ * {@link #COUNTS_OF} rounds of the threshold top-k protocol until {@link #CLOSE_PARTICIPANT}.
+ *
+ * <p>A partition may instead name a {@link FileRange} on the server's disk, which the server maps
+ * itself; {@link #FILE_SIZE} asks whether the server holds a file and how large it is.
+ */
+final class NodeWire {
+  static final int MAGIC = 0x4B544832; // "KTH2"
+  static final byte PROCESS = 1;
+  static final byte OPEN_PARTICIPANT = 2;
+  static final byte LOCAL_TOP_K = 3;
+  static final byte AT_LEAST = 4;
+  static final byte COUNTS_OF = 5;
+  static final byte CLOSE_PARTICIPANT = 6;
+  static final byte FILE_SIZE = 7;
+  static final byte OK = 0;
+  static final byte ERROR = 1;
+
+  private static final byte BINARY = 0;
+  private static final byte TEXT = 1;
+  private static final byte FILE = 2;
+
+  /** A decoded {@link #PROCESS} request. */
+  record Request(DataPartition partition, int candidateLimit, ResultCodec codec) {}
+
+  private NodeWire() {}
+
+  static void writeRequest(
+      DataOutputStream out, DataPartition partition, int candidateLimit, ResultCodec codec)
+      throws IOException {
+    Varint.writeUnsigned(out, partition.getNodeId());
+    Varint.writeUnsigned(out, candidateLimit);
+    out.writeByte(codec.ordinal());
+    if (partition.getFileRange() != null) {
+      FileRange range = partition.getFileRange();
+      out.writeByte(FILE);
+      out.writeUTF(range.getPath());
+      Varint.writeUnsigned(out, range.getOffset());
+      Varint.writeUnsigned(out, range.getLength());
+      out.writeByte(range.getFormat().ordinal());
+      return;
+    }
+    if (partition.getText() != null) {
+      out.writeByte(TEXT);
+      ByteBuffer bytes = partition.getText().asByteBuffer();
+      Varint.writeUnsigned(out, bytes.remaining());
+      byte[] chunk = new byte[Math.min(bytes.remaining(), 1 << 16)];
+      while (bytes.hasRemaining()) {
+        int length = Math.min(chunk.length, bytes.remaining());
+        bytes.get(chunk, 0, length);
+        out.write(chunk, 0, length);
+      }
+      return;
+    }
+    out.writeByte(BINARY);
+    IntSlice data = partition.getData();
+    Varint.writeUnsigned(out, data.size());
+    for (int i = 0; i < data.size(); i++) {
+      Varint.writeSigned(out, data.get(i));
+    }
+  }
+
+  static Request readRequest(DataInputStream in) throws IOException {
+    DataPartition partition = new DataPartition();
+    partition.setNodeId((int) Varint.readUnsigned(in));
+    int candidateLimit = (int) Varint.readUnsigned(in);
+    int codec = in.readUnsignedByte();
+    if (codec >= ResultCodec.values().length) {
+      throw new IOException("Unknown result codec " + codec);
+    }
+    byte kind = in.readByte();
+    if (kind == FILE) {
+      String path = in.readUTF();
+      long offset = Varint.readUnsigned(in);
+      long length = Varint.readUnsigned(in);
+      int format = in.readUnsignedByte();
+      if (format >= InputFormat.values().length) {
+        throw new IOException("Unknown input format " + format);
+      }
+      partition.setFileRange(new FileRange(path, offset, length, InputFormat.values()[format]));
+      return new Request(partition, candidateLimit, ResultCodec.values()[codec]);
+    }
+    int size = Math.toIntExact(Varint.readUnsigned(in));
+    if (kind == TEXT) {
+      byte[] bytes = new byte[size];
+      in.readFully(bytes);
+      partition.setText(DelimitedText.of(ByteBuffer.wrap(bytes)));
+    } else {
+      int[] values = new int[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = (int) Varint.readSigned(in);
+      }
+      partition.setData(IntSlice.of(values));
+    }
+    return new Request(partition, candidateLimit, ResultCodec.values()[codec]);
+  }
+
+  static void writeResult(DataOutputStream out, ProcessingResult result, ResultCodec codec)
+      throws IOException {
+    EncodedCounts encoded;
+    try (KeyCountCursor cursor = result.openCursor()) {
+      encoded = EncodedCounts.encode(cursor, codec);
+    }
+    out.writeByte(OK);
+    Varint.writeUnsigned(out, result.getNodeId());
+    Varint.writeUnsigned(out, result.getProcessingTimeMs());
+    encoded.writeTo(out);
+  }
+
+  /**
+   * Reads a result and keeps it encoded, or spills it to a sorted run when even the encoding is
+   * larger than {@code memoryThreshold}.
+   */
+  static ProcessingResult readResult(DataInputStream in, long memoryThreshold, Path spillDirectory)
+      throws IOException {
+    readStatus(in);
+    ProcessingResult result = new ProcessingResult();
+    result.setNodeId((int) Varint.readUnsigned(in));
+    result.setProcessingTimeMs(Varint.readUnsigned(in));
+    EncodedCounts encoded = EncodedCounts.readFrom(in);
+    if (encoded.encodedBytes() > memoryThreshold) {
+      try (KeyCountCursor cursor = encoded.open()) {
+        result.setSpilledRun(
+            SortedRun.write(spillDirectory, "kth-remote-" + result.getNodeId() + "-", cursor));
+      }
+    } else {
+      result.setEncoded(encoded);
+    }
+    return result;
+  }
+
+  static void writeKeys(DataOutputStream out, int[] keys) throws IOException {
+    Varint.writeUnsigned(out, keys.length);
+    for (int key : keys) {
+      Varint.writeSigned(out, key);
+    }
+  }
+
+  static int[] readKeys(DataInputStream in) throws IOException {
+    int[] keys = new int[Math.toIntExact(Varint.readUnsigned(in))];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = (int) Varint.readSigned(in);
+    }
+    return keys;
+  }
+
+  /** Answers a protocol round with a table of local counts, in the connection's codec. */
+  static void writeTable(DataOutputStream out, IntCountTable table, ResultCodec codec)
+      throws IOException {
+    out.writeByte(OK);
+    EncodedCounts.encode(KeyCountCursor.sorted(table), codec).writeTo(out);
+  }
+
+  static IntCountTable readTable(DataInputStream in) throws IOException {
+    readStatus(in);
+    EncodedCounts encoded = EncodedCounts.readFrom(in);
+    IntCountTable table = new IntCountTable((int) encoded.getEntries());
+    try (KeyCountCursor cursor = encoded.open()) {
+      while (cursor.next()) {
+        table.add(cursor.key(), (int) cursor.count());
+      }
+    }
+    return table;
+  }
+
+  static void writeSize(DataOutputStream out, long size) throws IOException {
+    out.writeByte(OK);
+    out.writeLong(size);
+  }
+
+  static long readSize(DataInputStream in) throws IOException {
+    readStatus(in);
+    return in.readLong();
+  }
+
+  static void writeOk(DataOutputStream out) throws IOException {
+    out.writeByte(OK);
+  }
+
+  /** Reads the status byte of a response, throwing the server's error if it failed. */
+  static void readStatus(DataInputStream in) throws IOException {
+    if (in.readByte() == ERROR) {
+      throw new IOException("Remote node failed: " + in.readUTF());
+    }
+  }
+
+  static void writeError(DataOutputStream out, Throwable error) throws IOException {
+    out.writeByte(ERROR);
+    out.writeUTF(error.toString());
+  }
+}
@@ -0,0 +1,89 @@
+package com.distributed.node;
+
+import com.distributed.model.IntSlice;
+import com.distributed.util.IntCountTable;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fork/join count of one large partition. Leaves of at most {@code splitThreshold} values count
+ * into their own table and sibling tables are merged pairwise on the way back up, so one node can
+ * keep every worker of its pool busy. All tables draw on one shared byte budget; once it is spent
+ * the task gives up and returns null, leaving the caller to fall back to spilling.
+ */
+class ParallelCounter extends RecursiveTask<IntCountTable> {
+  private final IntSlice data;
+  private final int splitThreshold;
+  private final AtomicLong remainingBytes;
+
+  ParallelCounter(IntSlice data, int splitThreshold, long memoryThreshold) {
+    this(data, splitThreshold, new AtomicLong(memoryThreshold));
+  }
+
+  private ParallelCounter(IntSlice data, int splitThreshold, AtomicLong remainingBytes) {
+    this.data = data;
+    this.splitThreshold = splitThreshold;
+    this.remainingBytes = remainingBytes;
+  }
+
+  @Override
+  protected IntCountTable compute() {
+    if (remainingBytes.get() < 0) {
+      return null;
+    }
+    if (data.size() <= splitThreshold) {
+      return countLeaf();
+    }
+
+    int half = data.size() >>> 1;
+    ParallelCounter left = new ParallelCounter(data.slice(0, half), splitThreshold, remainingBytes);
+    ParallelCounter right =
+        new ParallelCounter(data.slice(half, data.size() - half), splitThreshold, remainingBytes);
+    left.fork();
+    IntCountTable rightCounts = right.compute();
+    IntCountTable leftCounts = left.join();
+    if (leftCounts == null || rightCounts == null) {
+      return null;
+    }
+
+    // Fold the smaller table into the larger one; a merge cut short by the budget is incomplete,
+    // so it fails like a leaf would, and only a complete one hands the smaller table's bytes back
+    IntCountTable into = leftCounts.size() >= rightCounts.size() ? leftCounts : rightCounts;
+    IntCountTable from = into == leftCounts ? rightCounts : leftCounts;
+    boolean[] withinBudget = {true};
+    from.forEach(
+        (key, count) -> {
+          if (withinBudget[0] && (withinBudget[0] = reserveGrowth(into, key))) {
+            into.add(key, (int) count);
+          }
+        });
+    if (!withinBudget[0]) {
+      return null;
+    }
+    remainingBytes.addAndGet(from.estimatedBytes());
+    return into;
+  }
+
+  private IntCountTable countLeaf() {
+    IntCountTable table = new IntCountTable();
+    if (remainingBytes.addAndGet(-table.estimatedBytes()) < 0) {
+      return null;
+    }
+    boolean[] withinBudget = {true};
+    data.forEach(
+        key -> {
+          if (withinBudget[0] && (withinBudget[0] = reserveGrowth(table, key))) {
+            table.increment(key);
+          }
+        });
+    return withinBudget[0] ? table : null;
+  }
+
+  // Growth doubles the backing arrays, so reserve the extra bytes before a new key forces it
+  private boolean reserveGrowth(IntCountTable table, int key) {
+    if (table.isAtCapacity() && !table.containsKey(key)) {
+      return remainingBytes.addAndGet(-table.estimatedBytes()) >= 0;
+    }
+    return true;
+  }
+}
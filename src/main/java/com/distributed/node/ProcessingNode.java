@@ -1,47 +1,322 @@
 package com.distributed.node;
 
 import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
 import com.distributed.model.ProcessingResult;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import com.distributed.model.SketchResult;
+import com.distributed.model.SortedRun;
+import com.distributed.model.SummaryResult;
+import com.distributed.util.CountMinSketch;
+import com.distributed.util.HeavyHitters;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.IntLongCountTable;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.SpaceSavingSummary;
+import com.distributed.util.TopKSelector;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public class ProcessingNode {
+public class ProcessingNode implements ExactCountingNode {
+  public static final int SKETCH_DEPTH = 5;
+  public static final long SKETCH_SEED = 0x5DEECE66DL;
+  public static final int DEFAULT_SPLIT_THRESHOLD = 1 << 16;
+
   private final int nodeId;
   private final long memoryThreshold;
+  private final Path spillDirectory;
+  private final Executor executor;
+  private final ForkJoinPool countingPool;
+  private final int splitThreshold;
 
   public ProcessingNode(int nodeId, long memoryThreshold) {
+    this(nodeId, memoryThreshold, null);
+  }
+
+  /** {@code spillDirectory} of null spills to the system temporary directory. */
+  public ProcessingNode(int nodeId, long memoryThreshold, Path spillDirectory) {
+    this(nodeId, memoryThreshold, spillDirectory, ForkJoinPool.commonPool());
+  }
+
+  /** Runs all of this node's work on {@code executor}, which the caller owns. */
+  public ProcessingNode(int nodeId, long memoryThreshold, Path spillDirectory, Executor executor) {
+    this(
+        nodeId,
+        memoryThreshold,
+        spillDirectory,
+        executor,
+        executor instanceof ForkJoinPool pool ? pool : ForkJoinPool.commonPool(),
+        DEFAULT_SPLIT_THRESHOLD);
+  }
+
+  /**
+   * Partitions larger than {@code splitThreshold} values are counted by fork/join tasks on {@code
+   * countingPool}, which may be the same pool as {@code executor}.
+   */
+  public ProcessingNode(
+      int nodeId,
+      long memoryThreshold,
+      Path spillDirectory,
+      Executor executor,
+      ForkJoinPool countingPool,
+      int splitThreshold) {
+    if (splitThreshold <= 0) {
+      throw new IllegalArgumentException("Split threshold must be positive");
+    }
     this.nodeId = nodeId;
     this.memoryThreshold = memoryThreshold;
+    this.spillDirectory = spillDirectory;
+    this.executor = executor;
+    this.countingPool = countingPool;
+    this.splitThreshold = splitThreshold;
   }
 
-  public CompletableFuture<ProcessingResult> processData(DataPartition partition) {
+  @Override
+  public CompletableFuture<ProcessingResult> processData(
+      DataPartition partition, int candidateLimit) {
     return CompletableFuture.supplyAsync(
         () -> {
+          log.info("Node {} starting processing of {}", nodeId, partition.describeSize());
+
+          long startTime = System.currentTimeMillis();
+          ProcessingResult result = new ProcessingResult();
+          result.setNodeId(nodeId);
+          IntCountTable parallelCounts = countInParallel(partition);
+          if (parallelCounts != null) {
+            result.setCounts(
+                candidateLimit > 0
+                    ? topCandidates(parallelCounts, candidateLimit)
+                    : parallelCounts);
+          } else {
+            countWithSpilling(partition::forEach, candidateLimit, result);
+          }
+          result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+
+          if (result.isSpilled()) {
+            log.info(
+                "Node {} exceeded {} bytes, spilled {} keys to {}",
+                nodeId,
+                memoryThreshold,
+                result.getSpilledRun().getEntries(),
+                result.getSpilledRun().getPath());
+            return result;
+          }
           log.info(
-              "Node {} starting processing of {} elements: {}",
-              nodeId,
-              partition.getData().size(),
-              partition.getData());
+              "Node {} completed processing. Distinct keys: {}", nodeId, result.getCounts().size());
+          log.debug("Node {} frequencies: {}", nodeId, result.getCounts());
+          return result;
+        },
+        executor);
+  }
 
+  /**
+   * Counts work units taken from {@code units} until it returns null, all into one result, so the
+   * node keeps pulling for as long as any work is left. Units may come from other nodes'
+   * partitions, so the full counts are always reported.
+   */
+  public CompletableFuture<ProcessingResult> processUnits(Supplier<DataPartition> units) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          long startTime = System.currentTimeMillis();
           ProcessingResult result = new ProcessingResult();
           result.setNodeId(nodeId);
-          result.setFrequencies(countFrequencies(partition.getData()));
+          int[] counted = {0};
+          countWithSpilling(
+              values -> {
+                for (DataPartition unit = units.get(); unit != null; unit = units.get()) {
+                  unit.forEach(values);
+                  counted[0]++;
+                }
+              },
+              0,
+              result);
+          result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+          log.info(
+              "Node {} counted {} work units in {}ms{}",
+              nodeId,
+              counted[0],
+              result.getProcessingTimeMs(),
+              result.isSpilled() ? ", spilled to " + result.getSpilledRun().getPath() : "");
+          return result;
+        },
+        executor);
+  }
+
+  /** Keeps the counts in memory or spilled, whichever the partition needs. */
+  @Override
+  public CompletableFuture<TopKParticipant> openParticipant(DataPartition partition) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          ProcessingResult counted = new ProcessingResult();
+          counted.setNodeId(nodeId);
+          IntCountTable parallelCounts = countInParallel(partition);
+          if (parallelCounts != null) {
+            counted.setCounts(parallelCounts);
+          } else {
+            countWithSpilling(partition::forEach, 0, counted);
+          }
+          log.info(
+              "Node {} holding {} counts for threshold top-k",
+              nodeId,
+              counted.isSpilled() ? "spilled" : counted.getCounts().size());
+          return new LocalTopKParticipant(counted, executor);
+        },
+        executor);
+  }
 
+  /**
+   * Approximate counting in fixed memory: a Count-Min Sketch sized so that it and a heavy-hitter
+   * set of {@code candidateLimit} keys fit in this node's memory threshold. All nodes use the same
+   * depth and seed so their sketches can be merged.
+   */
+  public CompletableFuture<SketchResult> processDataApproximate(
+      DataPartition partition, int candidateLimit) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          long startTime = System.currentTimeMillis();
+          long sketchBudget = memoryThreshold - HeavyHitters.estimatedBytes(candidateLimit);
+          CountMinSketch sketch =
+              CountMinSketch.withMemoryBudget(sketchBudget, SKETCH_DEPTH, SKETCH_SEED);
+          HeavyHitters heavyHitters = new HeavyHitters(candidateLimit);
+          partition.getData().forEach(key -> heavyHitters.offer(key, sketch.add(key, 1)));
+
+          SketchResult result = new SketchResult();
+          result.setNodeId(nodeId);
+          result.setSketch(sketch);
+          result.setCandidates(heavyHitters.candidates());
+          result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
           log.info(
-              "Node {} completed processing. Frequencies: {}", nodeId, result.getFrequencies());
+              "Node {} sketched {} elements into {} bytes",
+              nodeId,
+              partition.getData().size(),
+              sketch.estimatedBytes());
+          return result;
+        },
+        executor);
+  }
+
+  /** Summarises the partition with a Space-Saving summary of {@code counters} counters. */
+  public CompletableFuture<SummaryResult> processDataSummary(
+      DataPartition partition, int counters) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          long startTime = System.currentTimeMillis();
+          SpaceSavingSummary summary = new SpaceSavingSummary(counters);
+          partition.getData().forEach(summary::offer);
+
+          SummaryResult result = new SummaryResult();
+          result.setNodeId(nodeId);
+          result.setSummary(summary);
+          result.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+          log.info(
+              "Node {} summarised {} elements into {} counters",
+              nodeId,
+              partition.getData().size(),
+              summary.size());
           return result;
-        });
+        },
+        executor);
   }
 
-  private Map<Integer, Integer> countFrequencies(List<Integer> data) {
-    Map<Integer, Integer> frequencies = new HashMap<>();
-    for (Integer num : data) {
-      frequencies.merge(num, 1, Integer::sum);
+  /**
+   * Counts a chunk of a stream into {@code state}, this node's running totals, and returns the
+   * chunk's own counts so callers can see which keys changed. Calls for one state must not overlap.
+   */
+  public CompletableFuture<IntCountTable> accumulate(DataPartition chunk, IntLongCountTable state) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          IntCountTable delta = countFrequencies(chunk.getData());
+          state.addAll(delta);
+          log.debug(
+              "Node {} accumulated {} elements, {} distinct keys owned",
+              nodeId,
+              chunk.getData().size(),
+              state.size());
+          return delta;
+        },
+        executor);
+  }
+
+  /** Counts a chunk into the bucket of a windowed state; false if the bucket already expired. */
+  public CompletableFuture<Boolean> accumulateWindow(
+      DataPartition chunk, long bucketId, WindowedCounts state) {
+    return CompletableFuture.supplyAsync(() -> state.add(bucketId, chunk.getData()), executor);
+  }
+
+  /**
+   * Counts a large binary partition with fork/join tasks. Returns null when the partition is too
+   * small to split, holds text, or its counts would not fit in memory and so need the spilling
+   * path.
+   */
+  private IntCountTable countInParallel(DataPartition partition) {
+    IntSlice data = partition.getData();
+    if (partition.getText() != null || data.size() <= splitThreshold) {
+      return null;
+    }
+    IntCountTable counts =
+        countingPool.invoke(new ParallelCounter(data, splitThreshold, memoryThreshold));
+    if (counts == null) {
+      log.info(
+          "Node {} exceeded {} bytes counting in parallel, recounting", nodeId, memoryThreshold);
     }
+    return counts;
+  }
+
+  /** Counts every value {@code values} feeds to its consumer, spilling past the threshold. */
+  private void countWithSpilling(
+      Consumer<IntConsumer> values, int candidateLimit, ProcessingResult result) {
+    try (SpillingCounter counter =
+        new SpillingCounter(memoryThreshold, spillDirectory, "kth-node-" + nodeId + "-")) {
+      values.accept(counter::increment);
+      if (!counter.hasSpilled()) {
+        IntCountTable counts = counter.table();
+        result.setCounts(candidateLimit > 0 ? topCandidates(counts, candidateLimit) : counts);
+      } else if (candidateLimit > 0) {
+        result.setCounts(topCandidates(counter.finish(), candidateLimit));
+      } else {
+        result.setSpilledRun(counter.finish());
+      }
+    }
+  }
+
+  private IntCountTable countFrequencies(IntSlice data) {
+    IntCountTable frequencies = new IntCountTable();
+    data.forEach(frequencies::increment);
     return frequencies;
   }
+
+  private IntCountTable topCandidates(SortedRun run, int limit) {
+    TopKSelector selector = new TopKSelector(limit);
+    try (KeyCountCursor cursor = run.open()) {
+      while (cursor.next()) {
+        selector.accept(cursor.key(), cursor.count());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read spill run " + run.getPath(), e);
+    } finally {
+      run.delete();
+    }
+    IntCountTable candidates = new IntCountTable(limit);
+    selector.forEach((key, count) -> candidates.add(key, (int) count));
+    return candidates;
+  }
+
+  private IntCountTable topCandidates(IntCountTable counts, int limit) {
+    if (counts.size() <= limit) {
+      return counts;
+    }
+    TopKSelector selector = new TopKSelector(limit);
+    counts.forEach(selector);
+    IntCountTable candidates = new IntCountTable(limit);
+    selector.forEach((key, count) -> candidates.add(key, (int) count));
+    return candidates;
+  }
 }
@@ -0,0 +1,252 @@
+package com.distributed.node;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.ProcessingResult;
+import com.distributed.model.ResultCodec;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.Varint;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Client for a {@link NodeServer}: ships each partition over TCP and reads back the counts, or
+ * keeps a connection open to run the threshold top-k rounds against counts held on the server. File
+ * ranges are sent as a path under the node's data root, which the server maps itself.
+ */
+@Slf4j
+public class RemoteProcessingNode implements ExactCountingNode {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final int nodeId;
+  private final InetSocketAddress address;
+  private final long memoryThreshold;
+  private final Path spillDirectory;
+  private final Executor executor;
+  private final ResultCodec codec;
+  private final int timeoutMs;
+
+  public RemoteProcessingNode(
+      int nodeId,
+      InetSocketAddress address,
+      long memoryThreshold,
+      Path spillDirectory,
+      Executor executor) {
+    this(nodeId, address, memoryThreshold, spillDirectory, executor, ResultCodec.NONE, 0);
+  }
+
+  /**
+   * Results whose encoding is larger than {@code memoryThreshold} are written to {@code
+   * spillDirectory} as they are received; {@code executor} runs the blocking socket I/O and {@code
+   * codec} compresses the results the server sends back. File paths are sent as they are, and the
+   * server resolves them against its own data root. A server that takes longer than {@code
+   * timeoutMs} to accept a connection or to send the next bytes of a reply fails the request and
+   * frees the executor thread; 0 waits indefinitely.
+   */
+  public RemoteProcessingNode(
+      int nodeId,
+      InetSocketAddress address,
+      long memoryThreshold,
+      Path spillDirectory,
+      Executor executor,
+      ResultCodec codec,
+      long timeoutMs) {
+    if (timeoutMs < 0) {
+      throw new IllegalArgumentException("Timeout must not be negative");
+    }
+    this.nodeId = nodeId;
+    this.address = address;
+    this.memoryThreshold = memoryThreshold;
+    this.spillDirectory = spillDirectory;
+    this.executor = executor;
+    this.codec = codec;
+    this.timeoutMs = (int) Math.min(timeoutMs, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Size of {@code file}, relative to the server's data root, or -1 if the server does not hold it;
+   * fails if the server refuses the path.
+   */
+  public CompletableFuture<Long> fileSize(Path file) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try (Connection connection = connect()) {
+            connection.out.writeByte(NodeWire.FILE_SIZE);
+            connection.out.writeUTF(file.toString());
+            connection.out.flush();
+            return NodeWire.readSize(connection.in);
+          } catch (IOException e) {
+            throw new UncheckedIOException("Remote node at " + address + " failed", e);
+          }
+        },
+        executor);
+  }
+
+  @Override
+  public CompletableFuture<ProcessingResult> processData(
+      DataPartition partition, int candidateLimit) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try (Connection connection = connect()) {
+            connection.out.writeByte(NodeWire.PROCESS);
+            NodeWire.writeRequest(connection.out, partition, candidateLimit, codec);
+            connection.out.flush();
+            ProcessingResult result =
+                NodeWire.readResult(connection.in, memoryThreshold, spillDirectory);
+            log.info(
+                "Remote node {} at {} returned {}",
+                result.getNodeId(),
+                address,
+                result.isSpilled()
+                    ? "a spilled result"
+                    : result.getEncoded().encodedBytes() + " encoded bytes");
+            return result;
+          } catch (IOException e) {
+            throw new UncheckedIOException("Remote node at " + address + " failed", e);
+          }
+        },
+        executor);
+  }
+
+  /** The server counts the partition and keeps its counts until the participant is closed. */
+  @Override
+  public CompletableFuture<TopKParticipant> openParticipant(DataPartition partition) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          Connection connection = null;
+          try {
+            connection = connect();
+            connection.out.writeByte(NodeWire.OPEN_PARTICIPANT);
+            NodeWire.writeRequest(connection.out, partition, 0, codec);
+            connection.out.flush();
+            NodeWire.readStatus(connection.in);
+            log.info("Remote node {} at {} holding counts for threshold top-k", nodeId, address);
+            return new RemoteTopKParticipant(connection);
+          } catch (IOException e) {
+            if (connection != null) {
+              connection.close();
+            }
+            throw new UncheckedIOException("Remote node at " + address + " failed", e);
+          }
+        },
+        executor);
+  }
+
+  private Connection connect() throws IOException {
+    Socket socket = new Socket();
+    try {
+      socket.connect(address, timeoutMs);
+      socket.setSoTimeout(timeoutMs);
+      socket.setTcpNoDelay(true);
+      Connection connection =
+          new Connection(
+              socket,
+              new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE)),
+              new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE)));
+      connection.out.writeInt(NodeWire.MAGIC);
+      return connection;
+    } catch (IOException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  private record Connection(Socket socket, DataOutputStream out, DataInputStream in)
+      implements Closeable {
+    @Override
+    public void close() {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        log.debug("Failed to close connection", e);
+      }
+    }
+  }
+
+  /** Runs each round as one request on the participant's own connection. */
+  private final class RemoteTopKParticipant implements TopKParticipant {
+    private final Connection connection;
+    // Not synchronized: a virtual thread blocking on the socket inside it would pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    RemoteTopKParticipant(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public CompletableFuture<IntCountTable> localTopK(int k) {
+      return round(
+          out -> {
+            out.writeByte(NodeWire.LOCAL_TOP_K);
+            Varint.writeUnsigned(out, k);
+          });
+    }
+
+    @Override
+    public CompletableFuture<IntCountTable> atLeast(int minCount) {
+      return round(
+          out -> {
+            out.writeByte(NodeWire.AT_LEAST);
+            Varint.writeUnsigned(out, minCount);
+          });
+    }
+
+    @Override
+    public CompletableFuture<IntCountTable> countsOf(int[] keys) {
+      return round(
+          out -> {
+            out.writeByte(NodeWire.COUNTS_OF);
+            NodeWire.writeKeys(out, keys);
+          });
+    }
+
+    @Override
+    public void close() {
+      lock.lock();
+      try {
+        connection.out.writeByte(NodeWire.CLOSE_PARTICIPANT);
+        connection.out.flush();
+        NodeWire.readStatus(connection.in);
+      } catch (IOException e) {
+        // The server releases the counts when the connection drops anyway
+        log.debug("Remote node {} at {} did not confirm close", nodeId, address, e);
+      } finally {
+        connection.close();
+        lock.unlock();
+      }
+    }
+
+    private CompletableFuture<IntCountTable> round(Request request) {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            lock.lock();
+            try {
+              request.write(connection.out);
+              connection.out.flush();
+              return NodeWire.readTable(connection.in);
+            } catch (IOException e) {
+              throw new UncheckedIOException("Remote node at " + address + " failed", e);
+            } finally {
+              lock.unlock();
+            }
+          },
+          executor);
+    }
+  }
+
+  @FunctionalInterface
+  private interface Request {
+    void write(DataOutputStream out) throws IOException;
+  }
+}
@@ -0,0 +1,111 @@
+package com.distributed.node;
+
+import com.distributed.model.SortedRun;
+import com.distributed.util.IntCountTable;
+import com.distributed.util.KeyCountCursor;
+import com.distributed.util.MergingCursor;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counting table that stays within a memory threshold. When the table would have to grow past the
+ * threshold, its contents are written out as a key-sorted run and counting restarts in the same
+ * (cleared) table; {@link #finish()} k-way merges the runs into one.
+ */
+@Slf4j
+class SpillingCounter implements Closeable {
+  static final int MAX_MERGE_FAN_IN = 64;
+
+  private final long memoryThreshold;
+  private final Path spillDirectory;
+  private final String runPrefix;
+  private final IntCountTable table = new IntCountTable();
+  private final List<SortedRun> runs = new ArrayList<>();
+
+  SpillingCounter(long memoryThreshold, Path spillDirectory, String runPrefix) {
+    this.memoryThreshold = memoryThreshold;
+    this.spillDirectory = spillDirectory;
+    this.runPrefix = runPrefix;
+  }
+
+  void increment(int key) {
+    // Growth doubles the backing arrays, so spill before a resize would cross the threshold
+    if (table.isAtCapacity()
+        && table.estimatedBytes() * 2 > memoryThreshold
+        && !table.containsKey(key)) {
+      spill();
+    }
+    table.increment(key);
+  }
+
+  boolean hasSpilled() {
+    return !runs.isEmpty();
+  }
+
+  IntCountTable table() {
+    return table;
+  }
+
+  /** Spills what is left in memory and merges every run into a single sorted run. */
+  SortedRun finish() {
+    if (!table.isEmpty()) {
+      spill();
+    }
+    try {
+      while (runs.size() > 1) {
+        List<SortedRun> merged = new ArrayList<>();
+        for (int from = 0; from < runs.size(); from += MAX_MERGE_FAN_IN) {
+          List<SortedRun> group =
+              runs.subList(from, Math.min(from + MAX_MERGE_FAN_IN, runs.size()));
+          merged.add(group.size() == 1 ? group.get(0) : mergeRuns(group));
+        }
+        runs.clear();
+        runs.addAll(merged);
+      }
+      return runs.remove(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to merge spill runs", e);
+    }
+  }
+
+  /** Deletes any runs not handed out by {@link #finish()}. */
+  @Override
+  public void close() {
+    runs.forEach(SortedRun::delete);
+    runs.clear();
+  }
+
+  private void spill() {
+    try (KeyCountCursor cursor = KeyCountCursor.sorted(table)) {
+      runs.add(SortedRun.write(spillDirectory, runPrefix, cursor));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill counts to disk", e);
+    }
+    log.debug("{} spilled {} keys to run {}", runPrefix, table.size(), runs.size());
+    table.clear();
+  }
+
+  private SortedRun mergeRuns(List<SortedRun> group) throws IOException {
+    List<KeyCountCursor> cursors = new ArrayList<>(group.size());
+    SortedRun merged;
+    try {
+      for (SortedRun run : group) {
+        cursors.add(run.open());
+      }
+      try (MergingCursor cursor = new MergingCursor(cursors)) {
+        merged = SortedRun.write(spillDirectory, runPrefix, cursor);
+      }
+    } finally {
+      for (KeyCountCursor cursor : cursors) {
+        cursor.close();
+      }
+    }
+    group.forEach(SortedRun::delete);
+    return merged;
+  }
+}
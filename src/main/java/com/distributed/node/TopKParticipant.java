@@ -0,0 +1,24 @@
+package com.distributed.node;
+
+import com.distributed.util.IntCountTable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A node's side of the three-round threshold top-k protocol. The node keeps its exact local counts
+ * between rounds and answers progressively narrower questions about them, so the coordinator never
+ * needs the full table.
+ */
+public interface TopKParticipant extends AutoCloseable {
+  /** Round one: the local top-k keys with their local counts. */
+  CompletableFuture<IntCountTable> localTopK(int k);
+
+  /** Round two: every key with a local count of at least {@code minCount} not sent in round one. */
+  CompletableFuture<IntCountTable> atLeast(int minCount);
+
+  /** Round three: local counts of the given keys; keys this node never saw are omitted. */
+  CompletableFuture<IntCountTable> countsOf(int[] keys);
+
+  /** Releases the local counts. */
+  @Override
+  void close();
+}
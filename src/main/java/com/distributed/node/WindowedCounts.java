@@ -0,0 +1,53 @@
+package com.distributed.node;
+
+import com.distributed.model.IntSlice;
+import com.distributed.util.IntCountTable;
+import java.util.function.Consumer;
+
+/**
+ * Ring of per-bucket count tables for one node. A bucket is reused, and its old counts dropped in
+ * one step, once the ring wraps around to it, so memory is bounded by the window rather than the
+ * stream.
+ */
+public class WindowedCounts {
+  private static final long NO_BUCKET = Long.MIN_VALUE;
+
+  private final IntCountTable[] tables;
+  private final long[] bucketIds;
+
+  public WindowedCounts(int numBuckets) {
+    this.tables = new IntCountTable[numBuckets];
+    this.bucketIds = new long[numBuckets];
+    for (int i = 0; i < numBuckets; i++) {
+      tables[i] = new IntCountTable();
+      bucketIds[i] = NO_BUCKET;
+    }
+  }
+
+  /** Counts data into the bucket; returns false if the bucket has already been expired. */
+  public boolean add(long bucketId, IntSlice data) {
+    int slot = (int) Math.floorMod(bucketId, (long) tables.length);
+    if (bucketIds[slot] != bucketId) {
+      if (bucketIds[slot] != NO_BUCKET && bucketIds[slot] > bucketId) {
+        return false;
+      }
+      tables[slot].clear();
+      bucketIds[slot] = bucketId;
+    }
+    data.forEach(tables[slot]::increment);
+    return true;
+  }
+
+  /** Visits the tables of buckets in [oldestBucket, newestBucket]. */
+  public void forEachLive(long oldestBucket, long newestBucket, Consumer<IntCountTable> consumer) {
+    for (int i = 0; i < tables.length; i++) {
+      if (bucketIds[i] >= oldestBucket && bucketIds[i] <= newestBucket) {
+        consumer.accept(tables[i]);
+      }
+    }
+  }
+
+  public int numBuckets() {
+    return tables.length;
+  }
+}
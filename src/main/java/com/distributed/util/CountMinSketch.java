@@ -0,0 +1,140 @@
+package com.distributed.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Count-Min Sketch over int keys. Estimates never undercount; with width w and depth d they
+ * overcount by at most (e / w) * totalCount with probability 1 - e^-d. Sketches built with the same
+ * dimensions and seed share hash functions and merge by cell-wise addition.
+ */
+public final class CountMinSketch {
+  private static final int MIN_WIDTH = 64;
+
+  private final int depth;
+  private final int width;
+  private final int shift;
+  private final long seed;
+  private final long[] multipliers;
+  private final long[] increments;
+  private final long[] cells;
+  private long totalCount;
+
+  public CountMinSketch(int depth, int width, long seed) {
+    if (depth <= 0) {
+      throw new IllegalArgumentException("Depth must be positive");
+    }
+    if (width < MIN_WIDTH || Integer.bitCount(width) != 1) {
+      throw new IllegalArgumentException("Width must be a power of two of at least " + MIN_WIDTH);
+    }
+    this.depth = depth;
+    this.width = width;
+    this.shift = Long.SIZE - Integer.numberOfTrailingZeros(width);
+    this.seed = seed;
+    this.multipliers = new long[depth];
+    this.increments = new long[depth];
+    SplittableRandom random = new SplittableRandom(seed);
+    for (int row = 0; row < depth; row++) {
+      multipliers[row] = random.nextLong() | 1L;
+      increments[row] = random.nextLong();
+    }
+    this.cells = new long[Math.multiplyExact(depth, width)];
+  }
+
+  /** Widest power-of-two sketch of the given depth whose cells fit in {@code bytes}. */
+  public static CountMinSketch withMemoryBudget(long bytes, int depth, long seed) {
+    long cellsPerRow = Math.max(MIN_WIDTH, bytes / ((long) depth * Long.BYTES));
+    int width = (int) Math.min(Long.highestOneBit(cellsPerRow), 1 << 26);
+    return new CountMinSketch(depth, width, seed);
+  }
+
+  /** Adds {@code delta} occurrences of key and returns its updated estimate. */
+  public long add(int key, long delta) {
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      int cell = row * width + bucket(row, key);
+      estimate = Math.min(estimate, cells[cell] += delta);
+    }
+    totalCount += delta;
+    return estimate;
+  }
+
+  public long estimate(int key) {
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, cells[row * width + bucket(row, key)]);
+    }
+    return estimate;
+  }
+
+  public void merge(CountMinSketch other) {
+    if (other.depth != depth || other.width != width || other.seed != seed) {
+      throw new IllegalArgumentException("Only sketches with identical dimensions and seed merge");
+    }
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] += other.cells[i];
+    }
+    totalCount += other.totalCount;
+  }
+
+  public CountMinSketch copy() {
+    CountMinSketch copy = new CountMinSketch(depth, width, seed);
+    System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+    copy.totalCount = totalCount;
+    return copy;
+  }
+
+  public int depth() {
+    return depth;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public long totalCount() {
+    return totalCount;
+  }
+
+  public double epsilon() {
+    return Math.E / width;
+  }
+
+  public double confidence() {
+    return 1 - Math.exp(-depth);
+  }
+
+  /** Additive overcount bound that holds for any single key with {@link #confidence()}. */
+  public long errorBound() {
+    return (long) Math.ceil(epsilon() * totalCount);
+  }
+
+  public long estimatedBytes() {
+    return (long) cells.length * Long.BYTES;
+  }
+
+  @Override
+  public String toString() {
+    return "CountMinSketch(depth=" + depth + ", width=" + width + ", total=" + totalCount + ")";
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof CountMinSketch other
+        && seed == other.seed
+        && depth == other.depth
+        && width == other.width
+        && totalCount == other.totalCount
+        && Arrays.equals(cells, other.cells);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(cells);
+  }
+
+  // Multiply-add-shift hashing: 2-universal for 32-bit keys using the top bits of a 64-bit product
+  private int bucket(int row, int key) {
+    return (int) ((multipliers[row] * (key & 0xFFFFFFFFL) + increments[row]) >>> shift);
+  }
+}
@@ -0,0 +1,234 @@
+package com.distributed.util;
+
+import com.distributed.model.FrequencyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Rank index over (key, count) pairs in {@link FrequencyPair} order. Keys are grouped into one
+ * bucket per distinct count, buckets run from the highest count down and keys ascend within a
+ * bucket, so the kth pair is a binary search over bucket start ranks plus an array lookup and the
+ * rank of a key is two hash lookups.
+ *
+ * <p>An update moves one key between buckets: O(1) in the key tables plus an O(log buckets) lookup
+ * in the bucket tree, which allocates when the key's new count starts a bucket. The buckets it
+ * touched are re-sorted and the start ranks recomputed on the next query; n counted values have at
+ * most sqrt(2n) distinct counts, so recomputing the ranks stays cheap. Not thread-safe, but once
+ * {@link #prepare} has run, queries only read until the next update and may run concurrently.
+ *
+ * <p>The two key tables cost 24 bytes per key at best, several times an encoded table, so callers
+ * holding many keys should check {@link #estimatedBytes} before keeping an index.
+ */
+public final class FrequencyRankIndex {
+  private static final int MIN_BUCKET_CAPACITY = 4;
+  // Tree entry, boxed count, bucket object and key array header, with compressed references
+  private static final long BUCKET_OVERHEAD_BYTES = 40 + 16 + 40 + 16;
+
+  private final IntLongCountTable counts;
+  // Slot of every key in its bucket's key array
+  private final IntLongCountTable positions;
+  private final TreeMap<Long, Bucket> buckets = new TreeMap<>(Comparator.reverseOrder());
+  // Buckets in rank order and the 0-based rank of each one's first key, valid while ranked
+  private Bucket[] ordered = new Bucket[0];
+  private int[] starts = new int[0];
+  private boolean ranked = true;
+
+  public FrequencyRankIndex() {
+    this(16);
+  }
+
+  public FrequencyRankIndex(int expectedKeys) {
+    this.counts = new IntLongCountTable(expectedKeys);
+    this.positions = new IntLongCountTable(expectedKeys);
+  }
+
+  /** Adds {@code delta} to the count of {@code key}; a count that reaches zero removes the key. */
+  public void add(int key, long delta) {
+    set(key, counts.get(key) + delta);
+  }
+
+  public void addAll(IntCountTable delta) {
+    delta.forEach(this::add);
+  }
+
+  /** Sets the count of {@code key}; zero removes the key. */
+  public void set(int key, long count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count for key " + key + " must not be negative");
+    }
+    // Only positive counts are stored, so a zero previous count means the key is absent
+    long previous = counts.get(key);
+    if (previous == count) {
+      return;
+    }
+    if (previous > 0) {
+      Bucket bucket = buckets.get(previous);
+      bucket.remove(key);
+      if (bucket.size == 0) {
+        buckets.remove(previous);
+      }
+    }
+    if (count > 0) {
+      counts.put(key, count);
+      buckets.computeIfAbsent(count, Bucket::new).add(key);
+    } else {
+      counts.remove(key);
+    }
+    ranked = false;
+  }
+
+  public int size() {
+    return counts.size();
+  }
+
+  /** Count of {@code key}, or 0 if absent. */
+  public long count(int key) {
+    return counts.get(key);
+  }
+
+  /** The kth ranked pair (1-based), or null when there are fewer than k keys. */
+  public FrequencyPair kth(int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    if (k > size()) {
+      return null;
+    }
+    rank();
+    int index = bucketAt(k - 1);
+    Bucket bucket = ordered[index];
+    bucket.sort();
+    return new FrequencyPair(bucket.keys[k - 1 - starts[index]], bucket.count);
+  }
+
+  /** Rank (1-based) of {@code key}, or -1 if absent. */
+  public int rankOf(int key) {
+    long count = counts.get(key);
+    if (count == 0) {
+      return -1;
+    }
+    rank();
+    Bucket bucket = buckets.get(count);
+    bucket.sort();
+    return bucket.start + (int) positions.get(key) + 1;
+  }
+
+  /** Pairs ranked {@code fromRank} to {@code toRank} inclusive (1-based), cut off at the end. */
+  public List<FrequencyPair> range(int fromRank, int toRank) {
+    if (fromRank <= 0 || toRank < fromRank) {
+      throw new IllegalArgumentException("Ranks must be positive and in ascending order");
+    }
+    int to = Math.min(toRank, size());
+    List<FrequencyPair> pairs = new ArrayList<>(Math.max(0, to - fromRank + 1));
+    if (fromRank > to) {
+      return pairs;
+    }
+    rank();
+    for (int index = bucketAt(fromRank - 1); index < ordered.length; index++) {
+      Bucket bucket = ordered[index];
+      bucket.sort();
+      int first = Math.max(fromRank - 1 - starts[index], 0);
+      int last = Math.min(to - starts[index], bucket.size);
+      for (int i = first; i < last; i++) {
+        pairs.add(new FrequencyPair(bucket.keys[i], bucket.count));
+      }
+      if (starts[index] + bucket.size >= to) {
+        break;
+      }
+    }
+    return pairs;
+  }
+
+  /** Sorts every bucket and computes the ranks now, so queries do no work until the next update. */
+  public void prepare() {
+    buckets.values().forEach(Bucket::sort);
+    rank();
+  }
+
+  /** Heap bytes held by the tables, the bucket tree and the rank arrays. */
+  public long estimatedBytes() {
+    long bytes = counts.estimatedBytes() + positions.estimatedBytes();
+    for (Bucket bucket : buckets.values()) {
+      bytes += (long) bucket.keys.length * Integer.BYTES + BUCKET_OVERHEAD_BYTES;
+    }
+    // One reference and one start rank per ranked bucket
+    return bytes + (long) ordered.length * (Integer.BYTES + Integer.BYTES);
+  }
+
+  /** Cursor over the (key, count) pairs in ascending key order. */
+  public KeyCountCursor sortedByKey() {
+    return KeyCountCursor.sorted(counts);
+  }
+
+  private void rank() {
+    if (ranked) {
+      return;
+    }
+    ordered = buckets.values().toArray(new Bucket[0]);
+    starts = new int[ordered.length];
+    int start = 0;
+    for (int i = 0; i < ordered.length; i++) {
+      starts[i] = start;
+      ordered[i].start = start;
+      start += ordered[i].size;
+    }
+    ranked = true;
+  }
+
+  // Index of the bucket holding 0-based rank r
+  private int bucketAt(int r) {
+    int found = Arrays.binarySearch(starts, r);
+    return found >= 0 ? found : -found - 2;
+  }
+
+  /** Keys sharing one count; removals swap in the last key, so order is restored lazily. */
+  private final class Bucket {
+    private final long count;
+    private int[] keys = new int[MIN_BUCKET_CAPACITY];
+    private int size;
+    private int start;
+    private boolean sorted = true;
+
+    Bucket(long count) {
+      this.count = count;
+    }
+
+    void add(int key) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+      }
+      if (size > 0 && keys[size - 1] > key) {
+        sorted = false;
+      }
+      positions.put(key, size);
+      keys[size++] = key;
+    }
+
+    void remove(int key) {
+      int slot = (int) positions.remove(key);
+      int last = keys[--size];
+      if (slot != size) {
+        keys[slot] = last;
+        positions.put(last, slot);
+        sorted = false;
+      }
+      if (keys.length > MIN_BUCKET_CAPACITY && size < keys.length / 4) {
+        keys = Arrays.copyOf(keys, keys.length / 2);
+      }
+    }
+
+    void sort() {
+      if (sorted) {
+        return;
+      }
+      Arrays.sort(keys, 0, size);
+      for (int i = 0; i < size; i++) {
+        positions.put(keys[i], i);
+      }
+      sorted = true;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.distributed.util;
+
+/**
+ * Bounded candidate set for the most frequent keys of a stream, fed with running (estimated)
+ * counts. Holds up to twice its capacity and prunes back to the best {@code capacity} keys, so
+ * updates stay allocation-free and amortised O(log capacity).
+ */
+public final class HeavyHitters {
+  private final int capacity;
+  private IntLongCountTable candidates;
+  private long admissionThreshold;
+
+  public HeavyHitters(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.candidates = new IntLongCountTable(2 * capacity);
+  }
+
+  public void offer(int key, long count) {
+    if (candidates.containsKey(key)) {
+      long current = candidates.get(key);
+      if (count > current) {
+        candidates.add(key, count - current);
+      }
+      return;
+    }
+    if (count < admissionThreshold) {
+      return;
+    }
+    candidates.add(key, count);
+    if (candidates.size() > 2 * capacity) {
+      prune();
+    }
+  }
+
+  /** The best {@code capacity} candidates with their latest counts. */
+  public IntLongCountTable candidates() {
+    if (candidates.size() > capacity) {
+      prune();
+    }
+    return candidates;
+  }
+
+  public static long estimatedBytes(int capacity) {
+    // Table sized for 2x capacity at 3/4 load, rounded up to a power of two, 12 bytes per slot
+    return (long) IntHashing.capacityFor(2 * capacity) * (Integer.BYTES + Long.BYTES);
+  }
+
+  private void prune() {
+    TopKSelector selector = new TopKSelector(capacity);
+    candidates.forEach(selector);
+    IntLongCountTable kept = new IntLongCountTable(2 * capacity);
+    selector.forEach(kept::add);
+    admissionThreshold = selector.weakestCount();
+    candidates = kept;
+  }
+}
@@ -0,0 +1,77 @@
+package com.distributed.util;
+
+import com.distributed.model.FrequencyPair;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Exact top-{@code capacity} ranking maintained under count increments. Because counts only grow, a
+ * key outside the ranking can only enter by overtaking the current weakest member, so each update
+ * costs O(log capacity) and queries never look at keys outside the ranking.
+ */
+public final class IncrementalTopK {
+  private final int capacity;
+  private final TreeSet<FrequencyPair> ranked = new TreeSet<>();
+  private final IntLongCountTable members;
+
+  public IncrementalTopK(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.members = new IntLongCountTable(Math.min(capacity, 1 << 16));
+  }
+
+  /** Records the new total for {@code key}; totals must never decrease. */
+  public void update(int key, long count) {
+    if (members.containsKey(key)) {
+      long previous = members.get(key);
+      if (count < previous) {
+        throw new IllegalArgumentException("Count for key " + key + " decreased");
+      }
+      ranked.remove(new FrequencyPair(key, previous));
+      ranked.add(new FrequencyPair(key, count));
+      members.add(key, count - previous);
+    } else if (ranked.size() < capacity) {
+      ranked.add(new FrequencyPair(key, count));
+      members.add(key, count);
+    } else {
+      FrequencyPair weakest = ranked.last();
+      if (FrequencyPair.compare(key, count, weakest.getNumber(), weakest.getFrequency()) < 0) {
+        ranked.pollLast();
+        members.remove(weakest.getNumber());
+        ranked.add(new FrequencyPair(key, count));
+        members.add(key, count);
+      }
+    }
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public int size() {
+    return ranked.size();
+  }
+
+  /** The kth ranked pair (1-based), or null when fewer than k keys have been seen. */
+  public FrequencyPair get(int k) {
+    if (k <= 0 || k > capacity) {
+      throw new IllegalArgumentException("K must be between 1 and " + capacity);
+    }
+    if (k > ranked.size()) {
+      return null;
+    }
+    Iterator<FrequencyPair> iterator = ranked.iterator();
+    for (int i = 1; i < k; i++) {
+      iterator.next();
+    }
+    return iterator.next();
+  }
+
+  public List<FrequencyPair> toList() {
+    return new ArrayList<>(ranked);
+  }
+}
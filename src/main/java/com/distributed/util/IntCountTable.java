@@ -0,0 +1,237 @@
+package com.distributed.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open-addressing int-to-int counting table with linear probing. Keys live in a flat int[] with 0
+ * as the empty marker (the zero key itself is tracked out of band), so incrementing an existing key
+ * never allocates. Capacity is always a power of two and doubles once the table is 3/4 full.
+ */
+public final class IntCountTable {
+  private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+  private int[] keys;
+  private int[] counts;
+  private int mask;
+  private int size;
+  private int resizeAt;
+  private boolean hasZeroKey;
+  private int zeroCount;
+
+  public IntCountTable() {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  public IntCountTable(int expectedSize) {
+    allocate(IntHashing.capacityFor(expectedSize));
+  }
+
+  public void increment(int key) {
+    add(key, 1);
+  }
+
+  public void add(int key, int delta) {
+    if (key == 0) {
+      hasZeroKey = true;
+      zeroCount += delta;
+      return;
+    }
+    int slot = IntHashing.mix(key) & mask;
+    int current;
+    while ((current = keys[slot]) != 0) {
+      if (current == key) {
+        counts[slot] += delta;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    counts[slot] = delta;
+    if (++size > resizeAt) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  public void addAll(IntCountTable other) {
+    if (other.hasZeroKey) {
+      add(0, other.zeroCount);
+    }
+    int[] otherKeys = other.keys;
+    int[] otherCounts = other.counts;
+    for (int i = 0; i < otherKeys.length; i++) {
+      if (otherKeys[i] != 0) {
+        add(otherKeys[i], otherCounts[i]);
+      }
+    }
+  }
+
+  public int get(int key) {
+    if (key == 0) {
+      return zeroCount;
+    }
+    int slot = findSlot(key);
+    return slot < 0 ? 0 : counts[slot];
+  }
+
+  public boolean containsKey(int key) {
+    return key == 0 ? hasZeroKey : findSlot(key) >= 0;
+  }
+
+  public int size() {
+    return hasZeroKey ? size + 1 : size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void forEach(IntLongConsumer consumer) {
+    if (hasZeroKey) {
+      consumer.accept(0, zeroCount);
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) {
+        consumer.accept(keys[i], counts[i]);
+      }
+    }
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0);
+    size = 0;
+    hasZeroKey = false;
+    zeroCount = 0;
+  }
+
+  public int capacity() {
+    return keys.length;
+  }
+
+  /** True when inserting one more new key would double the backing arrays. */
+  public boolean isAtCapacity() {
+    return size == resizeAt;
+  }
+
+  /** Heap bytes held by the backing arrays, ignoring object headers. */
+  public long estimatedBytes() {
+    return (long) keys.length * (Integer.BYTES + Integer.BYTES);
+  }
+
+  /** Read-only boxed view, intended for tests and diagnostics rather than hot paths. */
+  public Map<Integer, Integer> asMap() {
+    return new MapView();
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+
+  private int findSlot(int key) {
+    int slot = IntHashing.mix(key) & mask;
+    int current;
+    while ((current = keys[slot]) != 0) {
+      if (current == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    counts = new int[capacity];
+    mask = capacity - 1;
+    resizeAt = IntHashing.resizeThreshold(capacity);
+  }
+
+  private void rehash(int newCapacity) {
+    if (keys.length == IntHashing.MAX_CAPACITY) {
+      throw new IllegalStateException("Count table cannot grow beyond " + size + " keys");
+    }
+    int[] oldKeys = keys;
+    int[] oldCounts = counts;
+    allocate(newCapacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      int key = oldKeys[i];
+      if (key != 0) {
+        int slot = IntHashing.mix(key) & mask;
+        while (keys[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = oldCounts[i];
+      }
+    }
+  }
+
+  private final class MapView extends AbstractMap<Integer, Integer> {
+    @Override
+    public Integer get(Object key) {
+      return key instanceof Integer k && containsKey(k) ? IntCountTable.this.get(k) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof Integer k && IntCountTable.this.containsKey(k);
+    }
+
+    @Override
+    public int size() {
+      return IntCountTable.this.size();
+    }
+
+    @Override
+    public Set<Entry<Integer, Integer>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Integer, Integer>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return IntCountTable.this.size();
+        }
+      };
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<Integer, Integer>> {
+    // -1 stands for the out-of-band zero key
+    private int next = hasZeroKey ? -1 : advance(0);
+
+    @Override
+    public boolean hasNext() {
+      return next < keys.length;
+    }
+
+    @Override
+    public Map.Entry<Integer, Integer> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<Integer, Integer> entry =
+          next < 0
+              ? new AbstractMap.SimpleImmutableEntry<>(0, zeroCount)
+              : new AbstractMap.SimpleImmutableEntry<>(keys[next], counts[next]);
+      next = advance(next + 1);
+      return entry;
+    }
+
+    private int advance(int from) {
+      int i = from;
+      while (i < keys.length && keys[i] == 0) {
+        i++;
+      }
+      return i;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.distributed.util;
+
+final class IntHashing {
+  static final int MIN_CAPACITY = 8;
+  static final int MAX_CAPACITY = 1 << 30;
+
+  private IntHashing() {}
+
+  // Murmur3 finalizer: spreads clustered keys (e.g. small consecutive ints) across the table
+  static int mix(int key) {
+    int h = key;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  static int capacityFor(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Expected size cannot be negative");
+    }
+    // Smallest power of two that keeps expectedSize under the 3/4 load factor
+    long required = (long) expectedSize * 4 / 3 + 1;
+    if (required > MAX_CAPACITY) {
+      return MAX_CAPACITY;
+    }
+    return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) required - 1) << 1);
+  }
+
+  static int resizeThreshold(int capacity) {
+    return capacity == MAX_CAPACITY ? capacity - 1 : capacity - (capacity >>> 2);
+  }
+}
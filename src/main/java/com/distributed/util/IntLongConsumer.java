@@ -0,0 +1,6 @@
+package com.distributed.util;
+
+@FunctionalInterface
+public interface IntLongConsumer {
+  void accept(int key, long count);
+}
@@ -0,0 +1,204 @@
+package com.distributed.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int-to-long counting table. Same layout and growth policy as {@link
+ * IntCountTable}, but with 64-bit counts so it can accumulate totals across nodes.
+ */
+public final class IntLongCountTable {
+  private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+  private int[] keys;
+  private long[] counts;
+  private int mask;
+  private int size;
+  private int resizeAt;
+  private boolean hasZeroKey;
+  private long zeroCount;
+
+  public IntLongCountTable() {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  public IntLongCountTable(int expectedSize) {
+    allocate(IntHashing.capacityFor(expectedSize));
+  }
+
+  public void increment(int key) {
+    add(key, 1);
+  }
+
+  public void add(int key, long delta) {
+    if (key == 0) {
+      hasZeroKey = true;
+      zeroCount += delta;
+      return;
+    }
+    int slot = IntHashing.mix(key) & mask;
+    int current;
+    while ((current = keys[slot]) != 0) {
+      if (current == key) {
+        counts[slot] += delta;
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    counts[slot] = delta;
+    if (++size > resizeAt) {
+      rehash(keys.length << 1);
+    }
+  }
+
+  public void put(int key, long count) {
+    add(key, count - get(key));
+  }
+
+  /** Removes the key and returns its count, or 0 if absent. */
+  public long remove(int key) {
+    if (key == 0) {
+      long removed = zeroCount;
+      hasZeroKey = false;
+      zeroCount = 0;
+      return removed;
+    }
+    int slot = findSlot(key);
+    if (slot < 0) {
+      return 0;
+    }
+    long removed = counts[slot];
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    int current;
+    while ((current = keys[next]) != 0) {
+      int home = IntHashing.mix(current) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = current;
+        counts[gap] = counts[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    keys[gap] = 0;
+    size--;
+    return removed;
+  }
+
+  public void addAll(IntCountTable other) {
+    other.forEach(this::add);
+  }
+
+  public void addAll(IntLongCountTable other) {
+    if (other.hasZeroKey) {
+      add(0, other.zeroCount);
+    }
+    int[] otherKeys = other.keys;
+    long[] otherCounts = other.counts;
+    for (int i = 0; i < otherKeys.length; i++) {
+      if (otherKeys[i] != 0) {
+        add(otherKeys[i], otherCounts[i]);
+      }
+    }
+  }
+
+  public long get(int key) {
+    if (key == 0) {
+      return zeroCount;
+    }
+    int slot = findSlot(key);
+    return slot < 0 ? 0 : counts[slot];
+  }
+
+  public boolean containsKey(int key) {
+    return key == 0 ? hasZeroKey : findSlot(key) >= 0;
+  }
+
+  public int size() {
+    return hasZeroKey ? size + 1 : size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public void forEach(IntLongConsumer consumer) {
+    if (hasZeroKey) {
+      consumer.accept(0, zeroCount);
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) {
+        consumer.accept(keys[i], counts[i]);
+      }
+    }
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0);
+    size = 0;
+    hasZeroKey = false;
+    zeroCount = 0;
+  }
+
+  public int capacity() {
+    return keys.length;
+  }
+
+  /** Heap bytes held by the backing arrays, ignoring object headers. */
+  public long estimatedBytes() {
+    return (long) keys.length * (Integer.BYTES + Long.BYTES);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    forEach(
+        (key, count) -> {
+          if (sb.length() > 1) {
+            sb.append(", ");
+          }
+          sb.append(key).append('=').append(count);
+        });
+    return sb.append('}').toString();
+  }
+
+  private int findSlot(int key) {
+    int slot = IntHashing.mix(key) & mask;
+    int current;
+    while ((current = keys[slot]) != 0) {
+      if (current == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    counts = new long[capacity];
+    mask = capacity - 1;
+    resizeAt = IntHashing.resizeThreshold(capacity);
+  }
+
+  private void rehash(int newCapacity) {
+    if (keys.length == IntHashing.MAX_CAPACITY) {
+      throw new IllegalStateException("Count table cannot grow beyond " + size + " keys");
+    }
+    int[] oldKeys = keys;
+    long[] oldCounts = counts;
+    allocate(newCapacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      int key = oldKeys[i];
+      if (key != 0) {
+        int slot = IntHashing.mix(key) & mask;
+        while (keys[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = oldCounts[i];
+      }
+    }
+  }
+}
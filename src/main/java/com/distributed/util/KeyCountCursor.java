@@ -0,0 +1,50 @@
+package com.distributed.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/** Forward-only cursor over (key, count) pairs in ascending key order. */
+public interface KeyCountCursor extends Closeable {
+  /** Advances to the next pair; false once exhausted. */
+  boolean next() throws IOException;
+
+  int key();
+
+  long count();
+
+  @Override
+  default void close() throws IOException {}
+
+  /** Sorted cursor over an in-memory table; costs one long per entry for the sort. */
+  static KeyCountCursor sorted(IntCountTable table) {
+    long[] packed = new long[table.size()];
+    int[] fill = {0};
+    // Key in the high half keeps signed key order; counts fit the low half unsigned
+    table.forEach((key, count) -> packed[fill[0]++] = ((long) key << 32) | (count & 0xFFFFFFFFL));
+    Arrays.sort(packed);
+    return new KeyCountCursor() {
+      private int index = -1;
+
+      @Override
+      public boolean next() {
+        return ++index < packed.length;
+      }
+
+      @Override
+      public int key() {
+        return (int) (packed[index] >> 32);
+      }
+
+      @Override
+      public long count() {
+        return packed[index] & 0xFFFFFFFFL;
+      }
+    };
+  }
+
+  /** Sorted cursor over an in-memory long-count table; costs two longs per entry. */
+  static KeyCountCursor sorted(IntLongCountTable table) {
+    return PackedKeyCursor.sort(table.size(), table::forEach);
+  }
+}
@@ -0,0 +1,74 @@
+package com.distributed.util;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/** K-way merge of sorted cursors that sums the counts of keys present in several inputs. */
+public final class MergingCursor implements KeyCountCursor {
+  private final List<? extends KeyCountCursor> inputs;
+  private final PriorityQueue<KeyCountCursor> heap;
+  private int key;
+  private long count;
+
+  public MergingCursor(List<? extends KeyCountCursor> inputs) throws IOException {
+    this.inputs = inputs;
+    this.heap =
+        new PriorityQueue<>(
+            Math.max(1, inputs.size()), Comparator.comparingInt(KeyCountCursor::key));
+    for (KeyCountCursor input : inputs) {
+      if (input.next()) {
+        heap.add(input);
+      }
+    }
+  }
+
+  @Override
+  public boolean next() throws IOException {
+    if (heap.isEmpty()) {
+      return false;
+    }
+    KeyCountCursor head = heap.poll();
+    key = head.key();
+    count = head.count();
+    advance(head);
+    while (!heap.isEmpty() && heap.peek().key() == key) {
+      KeyCountCursor same = heap.poll();
+      count += same.count();
+      advance(same);
+    }
+    return true;
+  }
+
+  @Override
+  public int key() {
+    return key;
+  }
+
+  @Override
+  public long count() {
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException failure = null;
+    for (KeyCountCursor input : inputs) {
+      try {
+        input.close();
+      } catch (IOException e) {
+        failure = e;
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void advance(KeyCountCursor cursor) throws IOException {
+    if (cursor.next()) {
+      heap.add(cursor);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.distributed.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Key-ordered cursor over (key, long count) entries, sorted as one long per entry plus the counts
+ * in visit order.
+ */
+final class PackedKeyCursor implements KeyCountCursor {
+  private final long[] counts;
+  private final long[] packed;
+  private int index = -1;
+
+  private PackedKeyCursor(long[] counts, long[] packed) {
+    this.counts = counts;
+    this.packed = packed;
+  }
+
+  /** Sorts the {@code size} entries that {@code entries} visits. */
+  static KeyCountCursor sort(int size, Consumer<IntLongConsumer> entries) {
+    long[] counts = new long[size];
+    long[] packed = new long[size];
+    int[] fill = {0};
+    entries.accept(
+        (key, count) -> {
+          int index = fill[0]++;
+          counts[index] = count;
+          // Key in the high half keeps signed key order; the low half indexes the count
+          packed[index] = ((long) key << 32) | index;
+        });
+    Arrays.sort(packed);
+    return new PackedKeyCursor(counts, packed);
+  }
+
+  @Override
+  public boolean next() {
+    return ++index < packed.length;
+  }
+
+  @Override
+  public int key() {
+    return (int) (packed[index] >> 32);
+  }
+
+  @Override
+  public long count() {
+    return counts[(int) packed[index]];
+  }
+}
@@ -0,0 +1,210 @@
+package com.distributed.util;
+
+/**
+ * Space-Saving summary with a fixed number of counters. Each monitored key carries a count that
+ * never undercounts and an error such that count - error never overcounts; both are off by at most
+ * totalCount / capacity. Summaries merge with the mergeable-summaries rule of Agarwal et al., so
+ * nodes can ship O(capacity) state instead of their full frequency tables.
+ */
+public final class SpaceSavingSummary {
+  /** Approximate heap cost of one counter: key, count, error and its index-table slot. */
+  public static final int BYTES_PER_COUNTER = 48;
+
+  private final int capacity;
+  // Min-heap on (count, then FrequencyPair order) so the root is the counter to evict
+  private final int[] keys;
+  private final long[] counts;
+  private final long[] errors;
+  private final IntLongCountTable positions;
+  private int size;
+  private long totalCount;
+  // Count an unmonitored key may have had in the summaries merged into this one
+  private long floor;
+
+  public SpaceSavingSummary(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.keys = new int[capacity];
+    this.counts = new long[capacity];
+    this.errors = new long[capacity];
+    this.positions = new IntLongCountTable(capacity);
+  }
+
+  public void offer(int key) {
+    totalCount++;
+    if (positions.containsKey(key)) {
+      int i = (int) positions.get(key);
+      counts[i]++;
+      siftDown(i);
+    } else if (size < capacity) {
+      insert(key, floor + 1, floor);
+    } else {
+      // Replace the smallest counter; the newcomer inherits its count as potential error
+      positions.remove(keys[0]);
+      long min = minCount();
+      keys[0] = key;
+      counts[0] = min + 1;
+      errors[0] = min;
+      positions.put(key, 0);
+      siftDown(0);
+    }
+  }
+
+  /**
+   * Combines two summaries into a new one with the capacity of the larger. Keys unmonitored by both
+   * keep the sum of the two minimum counts as their bound, even if the merged summary has free
+   * counters, as it can when a small full summary merges into a larger one.
+   */
+  public static SpaceSavingSummary merge(SpaceSavingSummary a, SpaceSavingSummary b) {
+    int capacity = Math.max(a.capacity, b.capacity);
+    long minA = a.minCount();
+    long minB = b.minCount();
+
+    // A key unmonitored by one side may have had up to that side's minimum count there
+    IntLongCountTable mergedCounts = new IntLongCountTable(a.size + b.size);
+    IntLongCountTable mergedErrors = new IntLongCountTable(a.size + b.size);
+    for (int i = 0; i < a.size; i++) {
+      int key = a.keys[i];
+      boolean inB = b.positions.containsKey(key);
+      long countB = inB ? b.counts[(int) b.positions.get(key)] : minB;
+      long errorB = inB ? b.errors[(int) b.positions.get(key)] : minB;
+      mergedCounts.add(key, a.counts[i] + countB);
+      mergedErrors.add(key, a.errors[i] + errorB);
+    }
+    for (int i = 0; i < b.size; i++) {
+      int key = b.keys[i];
+      if (!a.positions.containsKey(key)) {
+        mergedCounts.add(key, b.counts[i] + minA);
+        mergedErrors.add(key, b.errors[i] + minA);
+      }
+    }
+
+    SpaceSavingSummary merged = new SpaceSavingSummary(capacity);
+    TopKSelector selector = new TopKSelector(capacity);
+    mergedCounts.forEach(selector);
+    selector.forEach((key, count) -> merged.insert(key, count, mergedErrors.get(key)));
+    merged.totalCount = a.totalCount + b.totalCount;
+    merged.floor = minA + minB;
+    return merged;
+  }
+
+  /** Upper bound on the key's frequency (the minimum counter for unmonitored keys). */
+  public long upperBound(int key) {
+    return positions.containsKey(key) ? counts[(int) positions.get(key)] : minCount();
+  }
+
+  /** Guaranteed lower bound on the key's frequency. */
+  public long lowerBound(int key) {
+    if (!positions.containsKey(key)) {
+      return 0;
+    }
+    int i = (int) positions.get(key);
+    return counts[i] - errors[i];
+  }
+
+  /**
+   * Largest count an unmonitored key can have: the smallest monitored count once every counter is
+   * in use, and never less than what the merged summaries allowed.
+   */
+  public long minCount() {
+    return Math.max(floor, size < capacity ? 0 : counts[0]);
+  }
+
+  public void forEach(IntLongConsumer consumer) {
+    for (int i = 0; i < size; i++) {
+      consumer.accept(keys[i], counts[i]);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public long totalCount() {
+    return totalCount;
+  }
+
+  /**
+   * Deterministic bound on how far any count can be from the truth; summaries merged from unequal
+   * capacities can exceed {@code totalCount / capacity} up to their unmonitored bound.
+   */
+  public long maxError() {
+    return Math.max(totalCount / capacity, minCount());
+  }
+
+  @Override
+  public String toString() {
+    return "SpaceSavingSummary(capacity="
+        + capacity
+        + ", size="
+        + size
+        + ", total="
+        + totalCount
+        + ")";
+  }
+
+  private void insert(int key, long count, long error) {
+    keys[size] = key;
+    counts[size] = count;
+    errors[size] = error;
+    positions.put(key, size);
+    siftUp(size++);
+  }
+
+  private boolean less(int i, int j) {
+    if (counts[i] != counts[j]) {
+      return counts[i] < counts[j];
+    }
+    // Among equal counts evict the key that ranks last under FrequencyPair order
+    return keys[i] > keys[j];
+  }
+
+  private void siftUp(int index) {
+    int i = index;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!less(i, parent)) {
+        return;
+      }
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int index) {
+    int i = index;
+    while (true) {
+      int left = 2 * i + 1;
+      if (left >= size) {
+        return;
+      }
+      int right = left + 1;
+      int smallest = right < size && less(right, left) ? right : left;
+      if (!less(smallest, i)) {
+        return;
+      }
+      swap(i, smallest);
+      i = smallest;
+    }
+  }
+
+  private void swap(int i, int j) {
+    int key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+    long count = counts[i];
+    counts[i] = counts[j];
+    counts[j] = count;
+    long error = errors[i];
+    errors[i] = errors[j];
+    errors[j] = error;
+    positions.put(keys[i], i);
+    positions.put(keys[j], j);
+  }
+}
@@ -0,0 +1,112 @@
+package com.distributed.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Thread-safe int-to-long counting table made of lock-guarded {@link IntLongCountTable} stripes,
+ * chosen by key hash. {@link #addAll} groups a whole source table by stripe and takes each lock
+ * once, so concurrent merges only contend when they reach the same stripe at the same moment.
+ */
+public final class StripedCountTable {
+  private final IntLongCountTable[] stripes;
+  private final int shift;
+
+  /** {@code stripes} is rounded up to a power of two. */
+  public StripedCountTable(int stripes) {
+    if (stripes <= 0 || stripes > 1 << 16) {
+      throw new IllegalArgumentException("Stripes must be between 1 and 65536");
+    }
+    int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new IntLongCountTable[count];
+    for (int i = 0; i < count; i++) {
+      this.stripes[i] = new IntLongCountTable();
+    }
+    // High hash bits pick the stripe; the stripe tables probe with the low bits
+    this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(count);
+  }
+
+  public void addAll(IntCountTable table) {
+    if (table.isEmpty()) {
+      return;
+    }
+    // Counting sort of the source entries by stripe
+    int[] offsets = new int[stripes.length + 1];
+    table.forEach((key, count) -> offsets[stripeOf(key) + 1]++);
+    for (int i = 0; i < stripes.length; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    int[] fill = Arrays.copyOf(offsets, stripes.length);
+    int[] keys = new int[table.size()];
+    long[] counts = new long[table.size()];
+    table.forEach(
+        (key, count) -> {
+          int index = fill[stripeOf(key)]++;
+          keys[index] = key;
+          counts[index] = count;
+        });
+
+    // Start at a random stripe so concurrent writers spread out instead of queueing in step
+    int start = ThreadLocalRandom.current().nextInt(stripes.length);
+    for (int n = 0; n < stripes.length; n++) {
+      int s = (start + n) & (stripes.length - 1);
+      if (offsets[s] == offsets[s + 1]) {
+        continue;
+      }
+      IntLongCountTable stripe = stripes[s];
+      synchronized (stripe) {
+        for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+          stripe.add(keys[i], counts[i]);
+        }
+      }
+    }
+  }
+
+  public long get(int key) {
+    IntLongCountTable stripe = stripes[stripeOf(key)];
+    synchronized (stripe) {
+      return stripe.get(key);
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (IntLongCountTable stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  /** Visits every entry; each stripe is locked while it is visited. */
+  public void forEach(IntLongConsumer consumer) {
+    for (IntLongCountTable stripe : stripes) {
+      synchronized (stripe) {
+        stripe.forEach(consumer);
+      }
+    }
+  }
+
+  /** Key-ordered cursor over the entries; only valid once every writer has finished. */
+  public KeyCountCursor sorted() {
+    return PackedKeyCursor.sort(size(), this::forEach);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    forEach(
+        (key, count) -> {
+          if (sb.length() > 1) {
+            sb.append(", ");
+          }
+          sb.append(key).append('=').append(count);
+        });
+    return sb.append('}').toString();
+  }
+
+  private int stripeOf(int key) {
+    return shift == Integer.SIZE ? 0 : IntHashing.mix(key) >>> shift;
+  }
+}
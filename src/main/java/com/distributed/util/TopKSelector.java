@@ -0,0 +1,130 @@
+package com.distributed.util;
+
+import com.distributed.model.FrequencyPair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the k best (key, count) pairs under {@link FrequencyPair} ordering in a bounded heap of
+ * primitive arrays. The weakest retained pair sits at the root, so offering n pairs costs O(n log
+ * k) time and O(k) memory, and the root is the kth best once k pairs have been seen.
+ */
+public final class TopKSelector implements IntLongConsumer {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final int k;
+  private int[] keys;
+  private long[] counts;
+  private int size;
+
+  public TopKSelector(int k) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("K must be positive");
+    }
+    this.k = k;
+    int capacity = Math.min(k, INITIAL_CAPACITY);
+    this.keys = new int[capacity];
+    this.counts = new long[capacity];
+  }
+
+  @Override
+  public void accept(int key, long count) {
+    if (size < k) {
+      if (size == keys.length) {
+        int capacity = (int) Math.min(k, (long) keys.length << 1);
+        keys = Arrays.copyOf(keys, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+      }
+      keys[size] = key;
+      counts[size] = count;
+      siftUp(size++);
+    } else if (FrequencyPair.compare(key, count, keys[0], counts[0]) < 0) {
+      keys[0] = key;
+      counts[0] = count;
+      siftDown(0);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isFull() {
+    return size == k;
+  }
+
+  /** Key of the weakest retained pair; the kth most frequent key once {@link #isFull()}. */
+  public int weakestKey() {
+    checkNotEmpty();
+    return keys[0];
+  }
+
+  public long weakestCount() {
+    checkNotEmpty();
+    return counts[0];
+  }
+
+  public void forEach(IntLongConsumer consumer) {
+    for (int i = 0; i < size; i++) {
+      consumer.accept(keys[i], counts[i]);
+    }
+  }
+
+  /** Retained pairs, most frequent first. */
+  public List<FrequencyPair> toSortedList() {
+    List<FrequencyPair> pairs = new ArrayList<>(size);
+    forEach((key, count) -> pairs.add(new FrequencyPair(key, count)));
+    pairs.sort(null);
+    return pairs;
+  }
+
+  private void checkNotEmpty() {
+    if (size == 0) {
+      throw new IllegalStateException("No pairs have been offered");
+    }
+  }
+
+  // Heap order: a parent is never better than its children
+  private boolean weaker(int i, int j) {
+    return FrequencyPair.compare(keys[i], counts[i], keys[j], counts[j]) > 0;
+  }
+
+  private void siftUp(int index) {
+    int i = index;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (!weaker(i, parent)) {
+        return;
+      }
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int index) {
+    int i = index;
+    while (true) {
+      int left = 2 * i + 1;
+      if (left >= size) {
+        return;
+      }
+      int right = left + 1;
+      int weakest = right < size && weaker(right, left) ? right : left;
+      if (!weaker(weakest, i)) {
+        return;
+      }
+      swap(i, weakest);
+      i = weakest;
+    }
+  }
+
+  private void swap(int i, int j) {
+    int key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+    long count = counts[i];
+    counts[i] = counts[j];
+    counts[j] = count;
+  }
+}
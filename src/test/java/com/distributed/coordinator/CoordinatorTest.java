@@ -2,11 +2,23 @@ package com.distributed.coordinator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.distributed.model.FrequencyEstimate;
+import com.distributed.model.FrequencyPair;
+import com.distributed.model.InputFormat;
+import com.distributed.model.IntSlice;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -29,7 +41,9 @@ class CoordinatorTest {
     @DisplayName("Should handle null input")
     void shouldHandleNullInput() {
       Exception exception =
-          assertThrows(IllegalArgumentException.class, () -> coordinator.findKthFrequent(null, 1));
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> coordinator.findKthFrequent((List<Integer>) null, 1));
       assertEquals("Input data cannot be null", exception.getMessage());
     }
 
@@ -111,4 +125,417 @@ class CoordinatorTest {
       assertTrue(result > 0, "Should find valid result regardless of node count");
     }
   }
+
+  @Nested
+  @DisplayName("Primitive Input Tests")
+  class PrimitiveInputTests {
+
+    @Test
+    @DisplayName("Should give the same answer for list, array, buffer and slice inputs")
+    void shouldAgreeAcrossInputForms() {
+      int[] values = {9, 9, 6, 9, 8, 6, 8, 6, 4};
+      List<Integer> boxed = Arrays.stream(values).boxed().toList();
+      IntBuffer direct = ByteBuffer.allocateDirect(values.length * Integer.BYTES).asIntBuffer();
+      direct.put(values).flip();
+
+      for (int k = 1; k <= 5; k++) {
+        int expected = coordinator.findKthFrequent(boxed, k);
+        assertEquals(expected, coordinator.findKthFrequent(values, k));
+        assertEquals(expected, coordinator.findKthFrequent(IntBuffer.wrap(values), k));
+        assertEquals(expected, coordinator.findKthFrequent(direct, k));
+        assertEquals(expected, coordinator.findKthFrequent(IntSlice.of(values), k));
+      }
+    }
+
+    @Test
+    @DisplayName("Should only count elements inside the slice window")
+    void shouldRespectSliceWindow() {
+      int[] values = {7, 7, 7, 1, 1, 2, 7, 7};
+      IntSlice window = IntSlice.of(values, 3, 3);
+
+      assertEquals(1, coordinator.findKthFrequent(window, 1));
+      assertEquals(2, coordinator.findKthFrequent(window, 2));
+      assertEquals(-1, coordinator.findKthFrequent(window, 3));
+    }
+
+    @Test
+    @DisplayName("Should reject null primitive inputs")
+    void shouldRejectNullPrimitiveInputs() {
+      assertThrows(
+          IllegalArgumentException.class, () -> coordinator.findKthFrequent((int[]) null, 1));
+      assertThrows(
+          IllegalArgumentException.class, () -> coordinator.findKthFrequent((IntBuffer) null, 1));
+      assertThrows(
+          IllegalArgumentException.class, () -> coordinator.findKthFrequent((IntSlice) null, 1));
+      assertThrows(
+          IllegalArgumentException.class, () -> coordinator.findKthFrequent((Path) null, 1));
+    }
+
+    @Test
+    @DisplayName("Should count a memory-mapped little-endian int32 file")
+    void shouldCountMappedFile(@TempDir Path directory) throws IOException {
+      int[] values = new Random(42).ints(10_001, -500, 500).toArray();
+      ByteBuffer bytes =
+          ByteBuffer.allocate(values.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      bytes.asIntBuffer().put(values);
+      Path file = Files.write(directory.resolve("values.bin"), bytes.array());
+
+      for (int k : new int[] {1, 2, 50, 999, 1_000}) {
+        assertEquals(coordinator.findKthFrequent(values, k), coordinator.findKthFrequent(file, k));
+      }
+      assertEquals(
+          -1, coordinator.findKthFrequent(Files.createFile(directory.resolve("empty")), 1));
+    }
+
+    @Test
+    @DisplayName("Should parse and count a delimited text file")
+    void shouldCountDelimitedTextFile(@TempDir Path directory) throws IOException {
+      int[] values = new Random(42).ints(10_001, -500, 500).toArray();
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < values.length; i++) {
+        text.append(values[i]).append(i % 10 == 9 ? "\n" : ",");
+      }
+      Path file = Files.writeString(directory.resolve("values.csv"), text);
+
+      for (int k : new int[] {1, 2, 50, 999, 1_000}) {
+        assertEquals(
+            coordinator.findKthFrequent(values, k),
+            coordinator.findKthFrequent(file, InputFormat.DELIMITED_TEXT, k));
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Memory Threshold Tests")
+  class MemoryThresholdTests {
+
+    @ParameterizedTest
+    @ValueSource(longs = {512, 4 * 1024, 64 * 1024})
+    @DisplayName("Should give exact answers when nodes spill to disk")
+    void shouldGiveExactAnswersWhenSpilling(long memoryPerNode) {
+      int[] data = new Random(42).ints(100_000, 0, 20_000).toArray();
+      Coordinator constrained = new Coordinator(DEFAULT_NODES, memoryPerNode);
+      Coordinator unconstrained = new Coordinator(DEFAULT_NODES, Long.MAX_VALUE);
+
+      for (int k : new int[] {1, 5, 100, 19_000, 25_000}) {
+        assertEquals(
+            unconstrained.findKthFrequent(data, k), constrained.findKthFrequent(data, k), "k=" + k);
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Approximate Mode Tests")
+  class ApproximateModeTests {
+
+    @ParameterizedTest
+    @EnumSource(Approximation.class)
+    @DisplayName("Should find heavy hitters with bounds that contain the true count")
+    void shouldFindHeavyHittersWithinBounds(Approximation approximation) {
+      Coordinator approximate =
+          new Coordinator(
+              CoordinatorConfig.builder()
+                  .numNodes(DEFAULT_NODES)
+                  .memoryThresholdPerNode(DEFAULT_MEMORY)
+                  .approximation(approximation)
+                  .build());
+      Random random = new Random(42);
+      int[] data = new int[200_000];
+      Map<Integer, Integer> exact = new HashMap<>();
+      for (int i = 0; i < data.length; i++) {
+        // Keys 1..5 take decreasing, well separated shares; the rest is high-cardinality noise
+        int share = random.nextInt(100);
+        if (share < 20) {
+          data[i] = 1;
+        } else if (share < 35) {
+          data[i] = 2;
+        } else if (share < 45) {
+          data[i] = 3;
+        } else if (share < 52) {
+          data[i] = 4;
+        } else if (share < 57) {
+          data[i] = 5;
+        } else {
+          data[i] = 1_000 + random.nextInt(1_000_000);
+        }
+        exact.merge(data[i], 1, Integer::sum);
+      }
+
+      for (int k = 1; k <= 5; k++) {
+        FrequencyEstimate estimate = approximate.findKthFrequentApproximate(data, k);
+        assertEquals(coordinator.findKthFrequent(data, k), estimate.getNumber(), "k=" + k);
+        int trueCount = exact.get(estimate.getNumber());
+        assertTrue(estimate.getLowerBound() <= trueCount && trueCount <= estimate.getUpperBound());
+        assertTrue(estimate.getConfidence() > 0.99);
+      }
+    }
+
+    @Test
+    @DisplayName("Should handle empty input and k beyond the candidates")
+    void shouldHandleEdgeCases() {
+      assertNull(coordinator.findKthFrequentApproximate(new int[0], 1));
+      assertNull(coordinator.findKthFrequentApproximate(new int[] {1, 2}, 3));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> coordinator.findKthFrequentApproximate(new int[] {1}, 0));
+    }
+  }
+
+  @Nested
+  @DisplayName("Executor Tests")
+  class ExecutorTests {
+
+    @ParameterizedTest
+    @EnumSource(NodeExecutor.class)
+    @DisplayName("Should give the same answers on either node executor")
+    void shouldAgreeAcrossExecutors(NodeExecutor nodeExecutor) {
+      int[] data = new Random(42).ints(50_000, 0, 2_000).toArray();
+      CoordinatorConfig config =
+          CoordinatorConfig.builder()
+              .numNodes(DEFAULT_NODES)
+              .memoryThresholdPerNode(DEFAULT_MEMORY)
+              .nodeExecutor(nodeExecutor)
+              .executorThreads(2)
+              .splitThreshold(1_000)
+              .build();
+
+      try (Coordinator pinned = new Coordinator(config)) {
+        for (int k : new int[] {1, 10, 1_999}) {
+          assertEquals(coordinator.findKthFrequent(data, k), pinned.findKthFrequent(data, k));
+        }
+      }
+    }
+
+    @Test
+    @DisplayName("Should reject work once closed")
+    void shouldRejectWorkOnceClosed() {
+      Coordinator closed = new Coordinator(DEFAULT_NODES, DEFAULT_MEMORY);
+      closed.close();
+
+      assertThrows(RuntimeException.class, () -> closed.findKthFrequent(new int[] {1, 2}, 1));
+    }
+  }
+
+  @Nested
+  @DisplayName("Aggregation Tree Tests")
+  class AggregationTreeTests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 16, 64})
+    @DisplayName("Should match the flat merge for any fan-in")
+    void shouldMatchFlatMerge(int fanIn) {
+      int[] data = new Random(42).ints(100_000, 0, 5_000).toArray();
+      Coordinator flat = new Coordinator(20, DEFAULT_MEMORY);
+      Coordinator tree =
+          new Coordinator(
+              CoordinatorConfig.builder()
+                  .numNodes(20)
+                  .memoryThresholdPerNode(DEFAULT_MEMORY)
+                  .aggregationFanIn(fanIn)
+                  .build());
+
+      for (int k : new int[] {1, 7, 4_999, 5_001}) {
+        assertEquals(flat.findKthFrequent(data, k), tree.findKthFrequent(data, k), "k=" + k);
+      }
+    }
+
+    @Test
+    @DisplayName("Should combine the tree with spilled node results")
+    void shouldCombineWithSpilledResults() {
+      int[] data = new Random(42).ints(100_000, 0, 20_000).toArray();
+      Coordinator tree =
+          new Coordinator(
+              CoordinatorConfig.builder()
+                  .numNodes(7)
+                  .memoryThresholdPerNode(4 * 1024)
+                  .aggregationFanIn(2)
+                  .build());
+
+      for (int k : new int[] {1, 100, 19_000}) {
+        assertEquals(coordinator.findKthFrequent(data, k), tree.findKthFrequent(data, k));
+      }
+    }
+
+    @Test
+    @DisplayName("Should reject a fan-in of one")
+    void shouldRejectFanInOfOne() {
+      CoordinatorConfig config =
+          CoordinatorConfig.builder()
+              .numNodes(DEFAULT_NODES)
+              .memoryThresholdPerNode(DEFAULT_MEMORY)
+              .aggregationFanIn(1)
+              .build();
+      assertThrows(IllegalArgumentException.class, () -> new Coordinator(config));
+    }
+  }
+
+  @Nested
+  @DisplayName("Batch Query Tests")
+  class BatchQueryTests {
+
+    @ParameterizedTest
+    @MethodSource("com.distributed.coordinator.CoordinatorTest$BatchQueryTests#configurations")
+    @DisplayName("Should answer many k values exactly as separate queries would")
+    void shouldMatchSeparateQueries(CoordinatorConfig config) {
+      int[] data = new Random(42).ints(50_000, 0, 400).toArray();
+      int[] ks = new int[60];
+      Arrays.setAll(ks, i -> i + 1);
+      ks[59] = 1_000;
+      Coordinator batch = new Coordinator(config);
+
+      int[] answers = batch.findKthFrequent(data, ks);
+
+      for (int i = 0; i < ks.length; i++) {
+        assertEquals(coordinator.findKthFrequent(data, ks[i]), answers[i], "k=" + ks[i]);
+      }
+      assertEquals(-1, answers[59]);
+    }
+
+    static Stream<CoordinatorConfig> configurations() {
+      CoordinatorConfig.CoordinatorConfigBuilder base =
+          CoordinatorConfig.builder()
+              .numNodes(DEFAULT_NODES)
+              .memoryThresholdPerNode(DEFAULT_MEMORY);
+      return Stream.of(
+          base.build(),
+          base.partitionStrategy(new HashPartitionStrategy()).build(),
+          base.partitionStrategy(new RangePartitionStrategy())
+              .mergeProtocol(MergeProtocol.THRESHOLD_TOP_K)
+              .build());
+    }
+
+    @Test
+    @DisplayName("Should return the top n with their frequencies, most frequent first")
+    void shouldReturnTopN() {
+      int[] data = {7, 7, 7, 3, 3, 9, 9, 1};
+
+      assertEquals(
+          List.of(new FrequencyPair(7, 3), new FrequencyPair(3, 2), new FrequencyPair(9, 2)),
+          coordinator.findTopFrequent(data, 3));
+      assertEquals(4, coordinator.findTopFrequent(data, 10).size());
+      assertTrue(coordinator.findTopFrequent(new int[0], 3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid batches")
+    void shouldRejectInvalidBatches() {
+      int[] data = {1, 2, 3};
+      assertThrows(
+          IllegalArgumentException.class, () -> coordinator.findKthFrequent(data, new int[0]));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> coordinator.findKthFrequent(data, new int[] {2, 0}));
+      assertThrows(IllegalArgumentException.class, () -> coordinator.findTopFrequent(data, 0));
+      assertThrows(
+          IllegalArgumentException.class, () -> coordinator.findTopFrequent((int[]) null, 1));
+    }
+  }
+
+  @Nested
+  @DisplayName("Registered Dataset Tests")
+  class DatasetTests {
+
+    @Test
+    @DisplayName("Should answer repeat queries from the cached ranking")
+    void shouldServeRepeatQueriesFromCache() {
+      int[] data = new Random(42).ints(50_000, 0, 3_000).toArray();
+      coordinator.registerDataset("events", 1, data);
+      Coordinator fresh = new Coordinator(DEFAULT_NODES, DEFAULT_MEMORY);
+
+      // Including k beyond the distinct keys
+      for (int k : new int[] {1, 17, 50, 51, 2_000, 5_000}) {
+        assertEquals(fresh.findKthFrequent(data, k), coordinator.findKthFrequent("events", k));
+      }
+      assertEquals(fresh.findTopFrequent(data, 100), coordinator.findTopFrequent("events", 100));
+
+      assertEquals(1, coordinator.datasetCacheStats().missCount());
+      assertEquals(6, coordinator.datasetCacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Should answer rank-of-value and range-of-ranks queries")
+    void shouldAnswerRankAndRangeQueries() {
+      int[] data = new Random(7).ints(20_000, 0, 500).toArray();
+      coordinator.registerDataset("events", 1, data);
+      List<FrequencyPair> all = coordinator.findTopFrequent(data, 1_000);
+
+      assertEquals(all.subList(99, 150), coordinator.findFrequentRange("events", 100, 150));
+      assertEquals(all.subList(490, all.size()), coordinator.findFrequentRange("events", 491, 900));
+      for (int rank = 1; rank <= all.size(); rank += 37) {
+        assertEquals(rank, coordinator.findRank("events", all.get(rank - 1).getNumber()));
+      }
+      assertEquals(-1, coordinator.findRank("events", 10_000));
+      assertThrows(
+          IllegalArgumentException.class, () -> coordinator.findFrequentRange("events", 5, 4));
+    }
+
+    @Test
+    @DisplayName("Should recount once a new version is registered")
+    void shouldRecountNewVersion() {
+      coordinator.registerDataset("events", 1, new int[] {1, 1, 2});
+      assertEquals(1, coordinator.findKthFrequent("events", 1));
+
+      coordinator.registerDataset("events", 2, new int[] {1, 2, 2});
+      assertEquals(2, coordinator.findKthFrequent("events", 1));
+      assertArrayEquals(
+          new int[] {2, 1, -1}, coordinator.findKthFrequent("events", new int[] {1, 2, 3}));
+      assertEquals(2, coordinator.datasetCacheStats().missCount());
+    }
+
+    @Test
+    @DisplayName("Should keep encoded counts cached when the rank index exceeds the budget")
+    void shouldFallBackToEncodedCounts() {
+      int[] data = new Random(9).ints(20_000, 0, 2_000).toArray();
+      Coordinator small =
+          new Coordinator(
+              CoordinatorConfig.builder()
+                  .numNodes(DEFAULT_NODES)
+                  .memoryThresholdPerNode(DEFAULT_MEMORY)
+                  .datasetCacheBytes(16 * 1024)
+                  .build());
+      small.registerDataset("events", 1, data);
+      List<FrequencyPair> all = coordinator.findTopFrequent(data, 5_000);
+
+      assertEquals(all.subList(0, 10), small.findTopFrequent("events", 10));
+      assertEquals(all.subList(199, 260), small.findFrequentRange("events", 200, 260));
+      assertEquals(List.of(), small.findFrequentRange("events", 2_001, 2_005));
+      assertArrayEquals(
+          new int[] {all.get(0).getNumber(), all.get(999).getNumber(), -1},
+          small.findKthFrequent("events", new int[] {1, 1_000, 2_001}));
+      for (int rank = 1; rank <= all.size(); rank += 97) {
+        assertEquals(rank, small.findRank("events", all.get(rank - 1).getNumber()));
+      }
+      assertEquals(-1, small.findRank("events", -5));
+      assertEquals(1, small.datasetCacheStats().missCount());
+    }
+
+    @Test
+    @DisplayName("Should still answer when the cache is disabled")
+    void shouldAnswerWithoutCache() {
+      Coordinator uncached =
+          new Coordinator(
+              CoordinatorConfig.builder()
+                  .numNodes(DEFAULT_NODES)
+                  .memoryThresholdPerNode(DEFAULT_MEMORY)
+                  .datasetCacheBytes(0)
+                  .build());
+      uncached.registerDataset("events", 1, new int[] {5, 5, 6});
+
+      assertEquals(5, uncached.findKthFrequent("events", 1));
+      assertEquals(5, uncached.findKthFrequent("events", 1));
+      assertEquals(2, uncached.datasetCacheStats().missCount());
+    }
+
+    @Test
+    @DisplayName("Should handle empty, unknown and unregistered datasets")
+    void shouldRejectUnknownDatasets() {
+      coordinator.registerDataset("empty", 1, new int[0]);
+      assertEquals(-1, coordinator.findKthFrequent("empty", 1));
+
+      assertThrows(IllegalArgumentException.class, () -> coordinator.findKthFrequent("none", 1));
+      coordinator.unregisterDataset("empty");
+      assertThrows(IllegalArgumentException.class, () -> coordinator.findKthFrequent("empty", 1));
+      assertThrows(IllegalArgumentException.class, () -> coordinator.findKthFrequent("empty", 0));
+    }
+  }
 }
@@ -0,0 +1,118 @@
+package com.distributed.coordinator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.InputFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Locality Placement Tests")
+class LocalityPlacementTest {
+  private static final long DEFAULT_MEMORY = 1024 * 1024;
+
+  @Test
+  @DisplayName("Should pack pieces largest first onto the least loaded node")
+  void shouldBalanceLoads() {
+    LocalityPlacement placement = new LocalityPlacement(List.of(), 2);
+    long[] sizes = {3, 7, 2, 5, 4, 3};
+    int[][] anyNode = new int[sizes.length][];
+    for (int i = 0; i < sizes.length; i++) {
+      anyNode[i] = new int[] {0, 1};
+    }
+
+    int[] assignment = placement.assign(sizes, anyNode);
+
+    long[] load = new long[2];
+    for (int i = 0; i < sizes.length; i++) {
+      load[assignment[i]] += sizes[i];
+    }
+    assertArrayEquals(new long[] {12, 12}, load);
+  }
+
+  @Test
+  @DisplayName("Should only place pieces on nodes that hold their file")
+  void shouldRespectLocality(@TempDir Path directory) {
+    List<Path> roots =
+        List.of(directory.resolve("a"), directory.resolve("b"), directory.resolve("a"));
+    LocalityPlacement placement = new LocalityPlacement(roots, 3);
+
+    int[] onA = placement.eligibleNodes(directory.resolve("a/part-0.bin"));
+    int[] onB = placement.eligibleNodes(directory.resolve("b/../b/part-1.bin"));
+    int[] assignment =
+        placement.assign(new long[] {100, 1, 1, 1}, new int[][] {onB, onA, onA, onB});
+
+    assertArrayEquals(new int[] {0, 2}, onA);
+    assertArrayEquals(new int[] {1}, onB);
+    assertEquals(1, assignment[0]);
+    assertEquals(1, assignment[3], "Node 1 is the only holder even though it is the busiest");
+    assertNotEquals(
+        assignment[1], assignment[2], "Replicas on nodes 0 and 2 should share the work");
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> placement.eligibleNodes(directory.resolve("elsewhere.bin")));
+  }
+
+  @Test
+  @DisplayName("Should count files spread over nodes' local directories")
+  void shouldCountLocalFiles(@TempDir Path directory) throws IOException {
+    int numNodes = 3;
+    List<Path> roots = new ArrayList<>();
+    for (int node = 0; node < numNodes; node++) {
+      roots.add(Files.createDirectory(directory.resolve("node-" + node)));
+    }
+    Random random = new Random(42);
+    List<Path> files = new ArrayList<>();
+    List<int[]> contents = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      int[] values = random.ints(1_000 + random.nextInt(20_000), 0, 3_000).toArray();
+      contents.add(values);
+      files.add(writeInts(roots.get(i % numNodes).resolve("part-" + i + ".bin"), values));
+    }
+    int[] all = contents.stream().flatMapToInt(IntStream::of).toArray();
+
+    try (Coordinator local =
+            new Coordinator(
+                CoordinatorConfig.builder()
+                    .numNodes(numNodes)
+                    .memoryThresholdPerNode(DEFAULT_MEMORY)
+                    .nodeDataRoots(roots)
+                    .build());
+        Coordinator inMemory = new Coordinator(numNodes, DEFAULT_MEMORY)) {
+      for (int k : new int[] {1, 10, 500}) {
+        assertEquals(
+            inMemory.findKthFrequent(all, k),
+            local.findKthFrequent(files, InputFormat.INT32_LE, k));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should reject roots that do not cover every node")
+  void shouldRejectPartialRoots(@TempDir Path directory) {
+    CoordinatorConfig config =
+        CoordinatorConfig.builder()
+            .numNodes(3)
+            .memoryThresholdPerNode(DEFAULT_MEMORY)
+            .nodeDataRoots(List.of(directory))
+            .build();
+
+    assertThrows(IllegalArgumentException.class, () -> new Coordinator(config));
+  }
+
+  private static Path writeInts(Path file, int[] values) throws IOException {
+    ByteBuffer bytes =
+        ByteBuffer.allocate(values.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    bytes.asIntBuffer().put(values);
+    return Files.write(file, bytes.array());
+  }
+}
@@ -0,0 +1,76 @@
+package com.distributed.coordinator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Partition Strategy Tests")
+class PartitionStrategyTest {
+  private static final long DEFAULT_MEMORY = 1024 * 1024;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 7})
+  @DisplayName("Range partitions should cover the input exactly once")
+  void rangePartitionsShouldCoverInput(int numNodes) {
+    IntSlice data = IntSlice.of(IntStream.range(0, 100).toArray());
+
+    List<DataPartition> partitions = new RangePartitionStrategy().partition(data, numNodes);
+
+    assertEquals(numNodes, partitions.size());
+    int next = 0;
+    for (DataPartition partition : partitions) {
+      for (int i = 0; i < partition.getData().size(); i++) {
+        assertEquals(next++, partition.getData().get(i));
+      }
+    }
+    assertEquals(100, next);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 8})
+  @DisplayName("Hash partitions should give every key a single owner")
+  void hashPartitionsShouldBeDisjoint(int numNodes) {
+    int[] values = new Random(42).ints(10_000, -500, 500).toArray();
+
+    List<DataPartition> partitions =
+        new HashPartitionStrategy().partition(IntSlice.of(values), numNodes);
+
+    Set<Integer> seen = new HashSet<>();
+    int total = 0;
+    for (DataPartition partition : partitions) {
+      Set<Integer> local = new HashSet<>();
+      partition.getData().forEach(local::add);
+      local.forEach(key -> assertTrue(seen.add(key), "Key " + key + " owned by two nodes"));
+      total += partition.getData().size();
+    }
+    assertEquals(values.length, total);
+  }
+
+  @Test
+  @DisplayName("Hash partitioning should match range partitioning results")
+  void hashPartitioningShouldMatchRange() {
+    int[] values = new Random(7).ints(50_000, 0, 300).toArray();
+    Coordinator range = new Coordinator(4, DEFAULT_MEMORY);
+    Coordinator hash =
+        new Coordinator(
+            CoordinatorConfig.builder()
+                .numNodes(4)
+                .memoryThresholdPerNode(DEFAULT_MEMORY)
+                .partitionStrategy(new HashPartitionStrategy())
+                .build());
+
+    for (int k = 1; k <= 301; k += 10) {
+      assertEquals(range.findKthFrequent(values, k), hash.findKthFrequent(values, k), "k=" + k);
+    }
+  }
+}
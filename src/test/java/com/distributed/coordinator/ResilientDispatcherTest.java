@@ -0,0 +1,164 @@
+package com.distributed.coordinator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.ProcessingResult;
+import com.distributed.node.ProcessingNode;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Resilient Dispatcher Tests")
+class ResilientDispatcherTest {
+  private static final long DEFAULT_MEMORY = 1024 * 1024;
+  private static final List<Integer> DATA = List.of(1, 2, 2, 3, 3, 3);
+  private static final Map<Integer, Integer> EXPECTED = Map.of(1, 1, 2, 2, 3, 3);
+
+  @Test
+  @DisplayName("Should re-dispatch a failed partition to another node")
+  void shouldRetryFailedPartition() {
+    CountingNode failing = new CountingNode(0, Behaviour.FAIL);
+    ResilientDispatcher dispatcher =
+        dispatcher(List.of(failing, new CountingNode(1, Behaviour.WORK)), 0, 2, 0);
+
+    ProcessingResult result = dispatcher.dispatch(partition(0), 0).join();
+
+    assertEquals(1, result.getNodeId());
+    assertEquals(EXPECTED, result.getFrequencies());
+    assertEquals(1, failing.calls.get());
+  }
+
+  @Test
+  @DisplayName("Should move a partition off a hung node once its deadline passes")
+  void shouldRetryHungPartition() {
+    ResilientDispatcher dispatcher =
+        dispatcher(
+            List.of(new CountingNode(0, Behaviour.HANG), new CountingNode(1, Behaviour.WORK)),
+            100,
+            2,
+            0);
+
+    assertEquals(EXPECTED, dispatcher.dispatch(partition(0), 0).join().getFrequencies());
+  }
+
+  @Test
+  @DisplayName("Should fail instead of blocking when every attempt times out")
+  void shouldFailWhenAttemptsRunOut() {
+    ResilientDispatcher dispatcher =
+        dispatcher(
+            List.of(new CountingNode(0, Behaviour.HANG), new CountingNode(1, Behaviour.HANG)),
+            50,
+            2,
+            0);
+
+    CompletionException error =
+        assertThrows(CompletionException.class, () -> dispatcher.dispatch(partition(0), 0).join());
+    assertInstanceOf(TimeoutException.class, error.getCause());
+  }
+
+  @Test
+  @DisplayName("Should fail straight away with a single attempt")
+  void shouldNotRetryByDefault() {
+    ResilientDispatcher dispatcher =
+        dispatcher(
+            List.of(new CountingNode(0, Behaviour.FAIL), new CountingNode(1, Behaviour.WORK)),
+            0,
+            1,
+            0);
+
+    assertThrows(CompletionException.class, () -> dispatcher.dispatch(partition(0), 0).join());
+  }
+
+  @Test
+  @DisplayName("Should answer from a speculative duplicate when the first node straggles")
+  void shouldSpeculateOnStraggler() {
+    CountingNode straggler = new CountingNode(0, Behaviour.HANG);
+    CountingNode healthy = new CountingNode(1, Behaviour.WORK);
+    ResilientDispatcher dispatcher = dispatcher(List.of(straggler, healthy), 0, 1, 50);
+
+    ProcessingResult result = dispatcher.dispatch(partition(0), 0).join();
+
+    assertEquals(1, result.getNodeId());
+    assertEquals(EXPECTED, result.getFrequencies());
+    assertEquals(1, healthy.calls.get());
+  }
+
+  @Test
+  @DisplayName("Should stop sending work to a node after repeated failures")
+  void shouldAvoidUnhealthyNode() {
+    CountingNode failing = new CountingNode(0, Behaviour.FAIL);
+    ResilientDispatcher dispatcher =
+        dispatcher(List.of(failing, new CountingNode(1, Behaviour.WORK)), 0, 2, 0);
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals(EXPECTED, dispatcher.dispatch(partition(0), 0).join().getFrequencies());
+    }
+
+    assertEquals(NodeHealth.FAILURES_BEFORE_UNHEALTHY, failing.calls.get());
+  }
+
+  @Test
+  @DisplayName("Should treat a node that throws instead of failing its future as failed")
+  void shouldSettleSynchronousThrow() {
+    CountingNode throwing = new CountingNode(0, Behaviour.THROW);
+    NodeHealth health = new NodeHealth(2);
+    ResilientDispatcher dispatcher =
+        new ResilientDispatcher(
+            List.of(throwing, new CountingNode(1, Behaviour.WORK)), health, 0, 2, 0);
+
+    assertEquals(EXPECTED, dispatcher.dispatch(partition(0), 0).join().getFrequencies());
+
+    // Nothing is left in flight on the throwing node, so it ties with the idle one
+    assertEquals(0, health.choose(Set.of(), null));
+    assertEquals(1, throwing.calls.get());
+  }
+
+  private static ResilientDispatcher dispatcher(
+      List<ProcessingNode> nodes, long timeoutMs, int maxAttempts, long speculativeAfterMs) {
+    return new ResilientDispatcher(
+        nodes, new NodeHealth(nodes.size()), timeoutMs, maxAttempts, speculativeAfterMs);
+  }
+
+  private static DataPartition partition(int nodeId) {
+    DataPartition partition = new DataPartition();
+    partition.setNodeId(nodeId);
+    partition.setData(DATA);
+    return partition;
+  }
+
+  private enum Behaviour {
+    WORK,
+    FAIL,
+    THROW,
+    HANG
+  }
+
+  private static class CountingNode extends ProcessingNode {
+    private final Behaviour behaviour;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    CountingNode(int nodeId, Behaviour behaviour) {
+      super(nodeId, DEFAULT_MEMORY);
+      this.behaviour = behaviour;
+    }
+
+    @Override
+    public CompletableFuture<ProcessingResult> processData(
+        DataPartition partition, int candidateLimit) {
+      calls.incrementAndGet();
+      return switch (behaviour) {
+        case WORK -> super.processData(partition, candidateLimit);
+        case FAIL -> CompletableFuture.failedFuture(new IllegalStateException("Node is down"));
+        case THROW -> throw new IllegalStateException("Node is down");
+        case HANG -> new CompletableFuture<>();
+      };
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package com.distributed.coordinator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.FrequencyPair;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Streaming Session Tests")
+class StreamingSessionTest {
+  private static final long DEFAULT_MEMORY = 1024 * 1024;
+  private Coordinator coordinator;
+
+  @BeforeEach
+  void setUp() {
+    coordinator = new Coordinator(3, DEFAULT_MEMORY);
+  }
+
+  @Test
+  @DisplayName("Should agree with batch processing after every chunk")
+  void shouldAgreeWithBatchAfterEveryChunk() {
+    StreamingSession session = coordinator.openSession(10);
+    List<Integer> history = new ArrayList<>();
+    Random random = new Random(42);
+
+    for (int chunk = 0; chunk < 20; chunk++) {
+      int[] values = random.ints(500, 0, 40 + chunk * 5).toArray();
+      session.append(values);
+      for (int value : values) {
+        history.add(value);
+      }
+
+      for (int k = 1; k <= 10; k++) {
+        assertEquals(
+            coordinator.findKthFrequent(history, k),
+            session.kthFrequent(k),
+            "chunk=" + chunk + ", k=" + k);
+      }
+    }
+    assertEquals(history.size(), session.totalCount());
+  }
+
+  @Test
+  @DisplayName("Should report ranked frequencies and missing ranks")
+  void shouldReportRankedFrequencies() {
+    StreamingSession session = coordinator.openSession(4);
+    session.append(new int[] {9, 9, 6});
+    session.append(new int[] {9, 8, 6, 8, 6, 4});
+
+    assertEquals(
+        List.of(
+            new FrequencyPair(6, 3),
+            new FrequencyPair(9, 3),
+            new FrequencyPair(8, 2),
+            new FrequencyPair(4, 1)),
+        session.topFrequent());
+
+    StreamingSession empty = coordinator.openSession(2);
+    assertEquals(-1, empty.kthFrequent(1));
+  }
+
+  @Test
+  @DisplayName("Should reject invalid queries")
+  void shouldRejectInvalidQueries() {
+    StreamingSession session = coordinator.openSession(3);
+    assertThrows(IllegalArgumentException.class, () -> session.kthFrequent(0));
+    assertThrows(IllegalArgumentException.class, () -> session.kthFrequent(4));
+    assertThrows(IllegalArgumentException.class, () -> session.append((int[]) null));
+    assertThrows(IllegalArgumentException.class, () -> coordinator.openSession(0));
+  }
+
+  @Test
+  @DisplayName("Should resume from the last checkpoint and only replay the tail")
+  void shouldResumeFromCheckpoint(@TempDir Path directory) throws IOException {
+    Random random = new Random(7);
+    List<int[]> chunks = new ArrayList<>();
+    for (int chunk = 0; chunk < 30; chunk++) {
+      chunks.add(random.ints(400, 0, 300).toArray());
+    }
+    StreamingSession original = coordinator.openSession(10, directory, 2_000);
+    for (int chunk = 0; chunk < 20; chunk++) {
+      original.append(chunks.get(chunk));
+    }
+    long checkpointed = original.checkpoint().join();
+    // Appended after the checkpoint and lost with the "crashed" session
+    for (int chunk = 20; chunk < 23; chunk++) {
+      original.append(chunks.get(chunk));
+    }
+
+    StreamingSession restored = coordinator.openSession(10, directory, 2_000);
+    assertEquals(checkpointed, restored.totalCount());
+    assertEquals(20 * 400, checkpointed);
+    for (int chunk = (int) (checkpointed / 400); chunk < 30; chunk++) {
+      restored.append(chunks.get(chunk));
+    }
+    StreamingSession reference = coordinator.openSession(10);
+    chunks.forEach(reference::append);
+
+    assertEquals(reference.topFrequent(), restored.topFrequent());
+    assertEquals(reference.totalCount(), restored.totalCount());
+    assertEquals(30 * 400, restored.checkpoint().join());
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(
+          3,
+          files.filter(file -> file.toString().endsWith(".ckpt")).count(),
+          "Only the latest snapshot of each node should remain");
+    }
+  }
+
+  @Test
+  @DisplayName("Should refuse a checkpoint taken with a different number of nodes")
+  void shouldRejectMismatchedCheckpoint(@TempDir Path directory) throws IOException {
+    StreamingSession session = coordinator.openSession(5, directory, 100);
+    session.append(new int[] {1, 2, 2});
+    session.checkpoint().join();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new Coordinator(2, DEFAULT_MEMORY).openSession(5, directory, 100));
+  }
+}
@@ -0,0 +1,147 @@
+package com.distributed.coordinator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.FrequencyPair;
+import com.distributed.model.IntSlice;
+import com.distributed.node.ProcessingNode;
+import com.distributed.node.TopKParticipant;
+import com.distributed.util.TopKSelector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Threshold Top-K Tests")
+class ThresholdTopKTest {
+  private static final long DEFAULT_MEMORY = 1024 * 1024;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 10, 100})
+  @DisplayName("Should agree with the full-count merge on skewed data")
+  void shouldAgreeWithFullCounts(int k) {
+    int[] data = skewed(200_000, 50_000, new Random(42));
+    Coordinator threshold =
+        new Coordinator(
+            CoordinatorConfig.builder()
+                .numNodes(8)
+                .memoryThresholdPerNode(DEFAULT_MEMORY)
+                .mergeProtocol(MergeProtocol.THRESHOLD_TOP_K)
+                .build());
+
+    assertEquals(
+        new Coordinator(8, DEFAULT_MEMORY).findKthFrequent(data, k),
+        threshold.findKthFrequent(data, k));
+  }
+
+  @Test
+  @DisplayName("Should transfer a small fraction of the local entries")
+  void shouldTransferSmallFraction() {
+    int[] data = skewed(400_000, 100_000, new Random(7));
+    int numNodes = 8;
+    List<TopKParticipant> participants = openParticipants(data, numNodes, DEFAULT_MEMORY);
+    try {
+      ThresholdTopK protocol = new ThresholdTopK(participants, 10);
+      TopKSelector selector = protocol.run();
+
+      assertEquals(
+          exactTopK(data, 10),
+          selector.toSortedList().stream().map(FrequencyPair::getNumber).toList());
+      long localEntries = localDistinctEntries(data, numNodes);
+      assertTrue(
+          protocol.transferredEntries() * 10 < localEntries,
+          protocol.transferredEntries() + " of " + localEntries + " entries transferred");
+    } finally {
+      participants.forEach(TopKParticipant::close);
+    }
+  }
+
+  @Test
+  @DisplayName("Should stay exact when participants spilled their counts")
+  void shouldStayExactWhenSpilled() {
+    int[] data = skewed(100_000, 20_000, new Random(3));
+    List<TopKParticipant> participants = openParticipants(data, 4, 8 * 1024);
+    try {
+      TopKSelector selector = new ThresholdTopK(participants, 25).run();
+
+      assertEquals(
+          exactTopK(data, 25),
+          selector.toSortedList().stream().map(FrequencyPair::getNumber).toList());
+    } finally {
+      participants.forEach(TopKParticipant::close);
+    }
+  }
+
+  @Test
+  @DisplayName("Should report no kth key when there are fewer than k distinct keys")
+  void shouldHandleFewerKeysThanK() {
+    List<TopKParticipant> participants =
+        openParticipants(new int[] {1, 1, 2, 3, 3, 3}, 3, DEFAULT_MEMORY);
+    try {
+      assertFalse(new ThresholdTopK(participants, 4).run().isFull());
+    } finally {
+      participants.forEach(TopKParticipant::close);
+    }
+  }
+
+  // Zipf-like: key i is drawn with probability proportional to 1 / (i + 1)
+  private static int[] skewed(int size, int keys, Random random) {
+    double[] cumulative = new double[keys];
+    double total = 0;
+    for (int i = 0; i < keys; i++) {
+      total += 1.0 / (i + 1);
+      cumulative[i] = total;
+    }
+    int[] data = new int[size];
+    for (int i = 0; i < size; i++) {
+      int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+      data[i] = index >= 0 ? index : -index - 1;
+    }
+    return data;
+  }
+
+  private static List<TopKParticipant> openParticipants(int[] data, int numNodes, long memory) {
+    List<TopKParticipant> participants = new ArrayList<>();
+    for (DataPartition partition :
+        new RangePartitionStrategy().partition(IntSlice.of(data), numNodes)) {
+      participants.add(
+          new ProcessingNode(partition.getNodeId(), memory).openParticipant(partition).join());
+    }
+    return participants;
+  }
+
+  private static List<Integer> exactTopK(int[] data, int k) {
+    Map<Integer, Integer> counts = new HashMap<>();
+    for (int value : data) {
+      counts.merge(value, 1, Integer::sum);
+    }
+    return counts.entrySet().stream()
+        .sorted(
+            Map.Entry.<Integer, Integer>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+        .limit(k)
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  private static long localDistinctEntries(int[] data, int numNodes) {
+    long entries = 0;
+    for (DataPartition partition :
+        new RangePartitionStrategy().partition(IntSlice.of(data), numNodes)) {
+      Set<Integer> keys = new HashSet<>();
+      partition.forEach(keys::add);
+      entries += keys.size();
+    }
+    return entries;
+  }
+}
@@ -0,0 +1,140 @@
+package com.distributed.coordinator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
+import com.distributed.model.WindowSpec;
+import com.distributed.node.ProcessingNode;
+import com.distributed.node.WindowedCounts;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Windowed Session Tests")
+class WindowedSessionTest {
+  private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+  private Coordinator coordinator;
+
+  @BeforeEach
+  void setUp() {
+    coordinator = new Coordinator(3, 1024 * 1024);
+  }
+
+  @Test
+  @DisplayName("Sliding window should expire whole buckets")
+  void slidingWindowShouldExpireBuckets() {
+    WindowedSession session =
+        coordinator.openWindowedSession(
+            WindowSpec.sliding(Duration.ofMinutes(5), Duration.ofMinutes(1)));
+
+    session.append(0, IntSlice.of(new int[] {1, 1, 1, 1, 2}));
+    session.append(3 * MINUTE, IntSlice.of(new int[] {2, 2, 3}));
+    session.append(6 * MINUTE, IntSlice.of(new int[] {3, 3}));
+
+    assertEquals(1, session.kthFrequent(1, 4 * MINUTE));
+    assertEquals(2, session.kthFrequent(2, 4 * MINUTE));
+    // At minute 5 the bucket holding the 1s has left the window
+    assertEquals(3, session.kthFrequent(1, 6 * MINUTE));
+    assertEquals(2, session.kthFrequent(2, 6 * MINUTE));
+    assertEquals(-1, session.kthFrequent(3, 6 * MINUTE));
+    assertEquals(-1, session.kthFrequent(1, 20 * MINUTE));
+  }
+
+  @Test
+  @DisplayName("Tumbling window should only see the current window")
+  void tumblingWindowShouldSeeCurrentWindow() {
+    WindowedSession session =
+        coordinator.openWindowedSession(WindowSpec.tumbling(Duration.ofMinutes(5)));
+
+    session.append(MINUTE, IntSlice.of(new int[] {7, 7, 8}));
+    session.append(4 * MINUTE, IntSlice.of(new int[] {8, 8}));
+    assertEquals(8, session.kthFrequent(1, 4 * MINUTE));
+
+    session.append(6 * MINUTE, IntSlice.of(new int[] {9}));
+    assertEquals(9, session.kthFrequent(1, 6 * MINUTE));
+    assertEquals(-1, session.kthFrequent(2, 6 * MINUTE));
+  }
+
+  @Test
+  @DisplayName("Should drop events older than the window")
+  void shouldDropLateEvents() {
+    WindowedSession session =
+        coordinator.openWindowedSession(
+            WindowSpec.sliding(Duration.ofMinutes(2), Duration.ofMinutes(1)));
+
+    session.append(10 * MINUTE, IntSlice.of(new int[] {1}));
+    session.append(5 * MINUTE, IntSlice.of(new int[] {2, 2}));
+
+    assertEquals(2, session.droppedLateCount());
+    assertEquals(-1, session.kthFrequent(2, 10 * MINUTE));
+  }
+
+  @Test
+  @DisplayName("Should count chunks a node drops because its bucket expired")
+  void shouldCountChunksDroppedByNodes() {
+    ProcessingNode expired =
+        new ProcessingNode(0, 1024 * 1024) {
+          @Override
+          public CompletableFuture<Boolean> accumulateWindow(
+              DataPartition chunk, long bucketId, WindowedCounts state) {
+            return CompletableFuture.completedFuture(false);
+          }
+        };
+    WindowedSession session =
+        new WindowedSession(
+            List.of(expired),
+            new HashPartitionStrategy(),
+            WindowSpec.tumbling(Duration.ofMinutes(5)),
+            Clock.systemUTC());
+
+    session.append(MINUTE, IntSlice.of(new int[] {4, 4, 5}));
+
+    assertEquals(3, session.droppedLateCount());
+    assertEquals(-1, session.kthFrequent(1, MINUTE));
+  }
+
+  @Test
+  @DisplayName("Should match batch processing of the events inside the window")
+  void shouldMatchBatchOverWindow() {
+    WindowedSession session =
+        coordinator.openWindowedSession(
+            WindowSpec.sliding(Duration.ofSeconds(60), Duration.ofSeconds(10)));
+    Random random = new Random(42);
+    List<long[]> events = new ArrayList<>();
+
+    for (long t = 0; t < 300_000; t += 2_500) {
+      int[] values = random.ints(50, 0, 25).toArray();
+      session.append(t, IntSlice.of(values));
+      for (int value : values) {
+        events.add(new long[] {t, value});
+      }
+
+      long oldestMillis = (t / 10_000 - 5) * 10_000;
+      List<Integer> live = new ArrayList<>();
+      for (long[] event : events) {
+        if (event[0] >= oldestMillis) {
+          live.add((int) event[1]);
+        }
+      }
+      for (int k = 1; k <= 5; k++) {
+        assertEquals(coordinator.findKthFrequent(live, k), session.kthFrequent(k, t), "t=" + t);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should reject invalid window shapes")
+  void shouldRejectInvalidWindows() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> WindowSpec.sliding(Duration.ofMinutes(5), Duration.ofMinutes(2)));
+    assertThrows(IllegalArgumentException.class, () -> WindowSpec.tumbling(Duration.ZERO));
+  }
+}
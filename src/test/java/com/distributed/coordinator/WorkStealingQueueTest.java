@@ -0,0 +1,122 @@
+package com.distributed.coordinator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Work Stealing Queue Tests")
+class WorkStealingQueueTest {
+  private static final long DEFAULT_MEMORY = 1024 * 1024;
+
+  @Test
+  @DisplayName("Should serve own units in order, then steal from the back of others")
+  void shouldStealFromBack() {
+    int[] values = IntStream.range(0, 40).toArray();
+    WorkStealingQueue queue =
+        new WorkStealingQueue(List.of(partition(0, IntSlice.of(values))), 2, 10 * Integer.BYTES);
+
+    assertEquals(4, queue.units());
+    assertEquals(0, queue.next(0).getData().get(0));
+    assertEquals(30, queue.next(1).getData().get(0));
+    assertEquals(10, queue.next(0).getData().get(0));
+    assertEquals(20, queue.next(1).getData().get(0));
+    assertNull(queue.next(0));
+    assertNull(queue.next(1));
+    assertEquals(2, queue.stolenUnits());
+  }
+
+  @Test
+  @DisplayName("Should hand out every unit exactly once to concurrent nodes")
+  void shouldHandOutEachUnitOnce() {
+    int numNodes = 4;
+    int[] values = IntStream.range(0, 100_000).toArray();
+    List<DataPartition> partitions = new ArrayList<>();
+    for (int node = 0; node < numNodes; node++) {
+      partitions.add(partition(node, IntSlice.of(values, node * 25_000, 25_000)));
+    }
+    WorkStealingQueue queue = new WorkStealingQueue(partitions, numNodes, 400);
+
+    ConcurrentLinkedQueue<Integer> seen = new ConcurrentLinkedQueue<>();
+    CompletableFuture.allOf(
+            IntStream.range(0, numNodes)
+                .mapToObj(
+                    node ->
+                        CompletableFuture.runAsync(
+                            () -> {
+                              for (DataPartition unit = queue.next(node);
+                                  unit != null;
+                                  unit = queue.next(node)) {
+                                unit.forEach(seen::add);
+                              }
+                            }))
+                .toArray(CompletableFuture[]::new))
+        .join();
+
+    assertEquals(1_000, queue.units());
+    assertArrayEquals(values, seen.stream().mapToInt(Integer::intValue).sorted().toArray());
+  }
+
+  @Test
+  @DisplayName("Should give exact answers when one node holds all of the data")
+  void shouldShareOutSkewedPartition() {
+    int[] data = new Random(42).ints(200_000, 0, 5_000).toArray();
+    PartitionStrategy allOnNodeZero =
+        (slice, numNodes) -> {
+          List<DataPartition> partitions = new ArrayList<>();
+          for (int node = 0; node < numNodes; node++) {
+            partitions.add(partition(node, node == 0 ? slice : IntSlice.empty()));
+          }
+          return partitions;
+        };
+
+    try (Coordinator stealing =
+            new Coordinator(
+                CoordinatorConfig.builder()
+                    .numNodes(4)
+                    .memoryThresholdPerNode(DEFAULT_MEMORY)
+                    .partitionStrategy(allOnNodeZero)
+                    .workUnitBytes(16 * 1024)
+                    .build());
+        Coordinator plain = new Coordinator(4, DEFAULT_MEMORY)) {
+      for (int k : new int[] {1, 10, 1_000}) {
+        assertEquals(plain.findKthFrequent(data, k), stealing.findKthFrequent(data, k));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should stay exact with hash partitioning, whose nodes normally ship only top-k")
+  void shouldStayExactWithHashPartitioning() {
+    int[] data = new Random(3).ints(100_000, 0, 2_000).toArray();
+
+    try (Coordinator stealing =
+            new Coordinator(
+                CoordinatorConfig.builder()
+                    .numNodes(4)
+                    .memoryThresholdPerNode(DEFAULT_MEMORY)
+                    .partitionStrategy(new HashPartitionStrategy())
+                    .workUnitBytes(4 * 1024)
+                    .build());
+        Coordinator plain = new Coordinator(4, DEFAULT_MEMORY)) {
+      for (int k : new int[] {1, 5, 50}) {
+        assertEquals(plain.findKthFrequent(data, k), stealing.findKthFrequent(data, k));
+      }
+    }
+  }
+
+  private static DataPartition partition(int nodeId, IntSlice data) {
+    DataPartition partition = new DataPartition();
+    partition.setNodeId(nodeId);
+    partition.setData(data);
+    return partition;
+  }
+}
@@ -103,7 +103,7 @@ class IntegrationTest {
     void shouldHandleEmptyAndNullInputs() {
       assertThrows(
           IllegalArgumentException.class,
-          () -> coordinator.findKthFrequent(null, 1),
+          () -> coordinator.findKthFrequent((List<Integer>) null, 1),
           "Should throw exception for null input");
       assertEquals(
           -1,
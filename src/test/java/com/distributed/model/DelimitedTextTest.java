@@ -0,0 +1,114 @@
+package com.distributed.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("DelimitedText Tests")
+class DelimitedTextTest {
+
+  @TempDir Path directory;
+
+  @Test
+  @DisplayName("Should parse comma and whitespace separated integers including extremes")
+  void shouldParseDelimitedIntegers() {
+    String text = "1,-2, 3\r\n\n2147483647\t-2147483648,,0\n-0";
+
+    assertEquals(List.of(1, -2, 3, Integer.MAX_VALUE, Integer.MIN_VALUE, 0, 0), parse(text));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"1,x,2", "2147483648", "-2147483649", "1,-,2", "1--2", "3-", "-"})
+  @DisplayName("Should reject malformed or out-of-range tokens")
+  void shouldRejectMalformedTokens(String text) {
+    assertThrows(NumberFormatException.class, () -> parse(text));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 5, 64})
+  @DisplayName("Should split on delimiters without losing or breaking values")
+  void shouldSplitOnDelimiters(int parts) throws IOException {
+    List<Integer> values = new Random(42).ints(1_000, -100_000, 100_000).boxed().toList();
+    Path file = write(values.stream().map(String::valueOf).collect(Collectors.joining("\n")));
+
+    List<DelimitedText> texts = DelimitedText.split(file, parts);
+
+    assertEquals(parts, texts.size());
+    assertEquals(values, parseAll(texts));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 7, 500})
+  @DisplayName("Should split a window into smaller windows on delimiters")
+  void shouldSplitWindow(int parts) {
+    List<Integer> values = new Random(7).ints(300, -1_000, 1_000).boxed().toList();
+    String text = values.stream().map(String::valueOf).collect(Collectors.joining(", "));
+    DelimitedText window =
+        DelimitedText.of(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+
+    List<DelimitedText> texts = window.split(parts);
+
+    assertTrue(texts.size() <= parts);
+    assertTrue(texts.stream().allMatch(part -> part.byteSize() > 0));
+    assertEquals(values, parseAll(texts));
+  }
+
+  @Test
+  @DisplayName("Should add ranges when the file exceeds the mapping limit")
+  void shouldAddRangesBeyondMappingLimit() throws IOException {
+    List<Integer> values = IntStream.range(0, 200).boxed().toList();
+    Path file = write(values.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+    List<DelimitedText> texts = DelimitedText.split(file, 1, 100);
+
+    assertTrue(texts.size() >= 6);
+    assertEquals(values, parseAll(texts));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 64, 2_000})
+  @DisplayName("Should map named file ranges to the same tokens as a split")
+  void shouldMapFileRanges(int parts) throws IOException {
+    List<Integer> values = new Random(3).ints(500, -100_000, 100_000).boxed().toList();
+    Path file = write(values.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+
+    List<DelimitedText> texts = new ArrayList<>();
+    for (FileRange range :
+        FileRange.split(file.toString(), Files.size(file), InputFormat.DELIMITED_TEXT, parts)) {
+      texts.add(DelimitedText.map(file, range.getOffset(), range.getLength()));
+    }
+
+    assertEquals(values, parseAll(texts));
+  }
+
+  private List<Integer> parse(String text) {
+    List<Integer> values = new ArrayList<>();
+    DelimitedText.of(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)))
+        .forEach(values::add);
+    return values;
+  }
+
+  private List<Integer> parseAll(List<DelimitedText> texts) {
+    List<Integer> values = new ArrayList<>();
+    texts.forEach(text -> text.forEach(values::add));
+    return values;
+  }
+
+  private Path write(String text) throws IOException {
+    return Files.writeString(directory.resolve("values.txt"), text, StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,156 @@
+package com.distributed.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.util.IntCountTable;
+import com.distributed.util.KeyCountCursor;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+@DisplayName("Encoded Counts Tests")
+class EncodedCountsTest {
+
+  @ParameterizedTest
+  @EnumSource(ResultCodec.class)
+  @DisplayName("Should decode exactly what was encoded, across partial blocks")
+  void shouldRoundTrip(ResultCodec codec) throws IOException {
+    TreeMap<Integer, Long> expected = new TreeMap<>();
+    Random random = new Random(42);
+    while (expected.size() < 1_000) {
+      expected.put(random.nextInt(), (long) random.nextInt(1 << random.nextInt(31)));
+    }
+    expected.put(Integer.MIN_VALUE, 0L);
+    expected.put(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    EncodedCounts encoded = EncodedCounts.encode(cursor(expected), codec);
+
+    assertEquals(expected.size(), encoded.getEntries());
+    assertEquals(expected, decode(encoded));
+  }
+
+  @Test
+  @DisplayName("Should encode an empty result")
+  void shouldEncodeEmpty() throws IOException {
+    EncodedCounts encoded = EncodedCounts.encode(cursor(new TreeMap<>()), ResultCodec.DEFLATE);
+
+    assertEquals(0, encoded.getEntries());
+    assertTrue(decode(encoded).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should take far less space than fixed-width pairs for dense keys")
+  void shouldCompressDenseKeys() throws IOException {
+    IntCountTable table = new IntCountTable();
+    Random random = new Random(7);
+    for (int i = 0; i < 200_000; i++) {
+      table.increment(random.nextInt(20_000));
+    }
+    long fixedWidth = (long) table.size() * 2 * Integer.BYTES;
+
+    EncodedCounts plain = EncodedCounts.encode(KeyCountCursor.sorted(table), ResultCodec.NONE);
+    EncodedCounts deflated =
+        EncodedCounts.encode(KeyCountCursor.sorted(table), ResultCodec.DEFLATE);
+
+    // One-byte key gaps and counts of at most 5 bits
+    assertTrue(plain.encodedBytes() < fixedWidth / 4, "Plain: " + plain.encodedBytes());
+    assertTrue(
+        deflated.encodedBytes() < plain.encodedBytes(), "Deflated: " + deflated.encodedBytes());
+  }
+
+  @Test
+  @DisplayName("Should reject keys out of order")
+  void shouldRejectUnsortedKeys() {
+    KeyCountCursor unsorted = cursor(new int[] {5, 3}, new long[] {1, 1});
+
+    assertThrows(
+        IllegalArgumentException.class, () -> EncodedCounts.encode(unsorted, ResultCodec.NONE));
+  }
+
+  @Test
+  @DisplayName("Should merge encodings by summing counts of shared keys")
+  void shouldMergeEncodings() throws IOException {
+    TreeMap<Integer, Long> left = new TreeMap<>();
+    TreeMap<Integer, Long> right = new TreeMap<>();
+    TreeMap<Integer, Long> expected = new TreeMap<>();
+    Random random = new Random(3);
+    for (int i = 0; i < 5_000; i++) {
+      int key = random.nextInt(3_000) - 1_500;
+      (i % 2 == 0 ? left : right).merge(key, 1L, Long::sum);
+      expected.merge(key, 1L, Long::sum);
+    }
+
+    EncodedCounts merged =
+        EncodedCounts.merge(
+            List.of(
+                EncodedCounts.encode(cursor(left), ResultCodec.DEFLATE),
+                EncodedCounts.encode(cursor(right), ResultCodec.NONE)),
+            ResultCodec.NONE);
+
+    assertEquals(expected, decode(merged));
+  }
+
+  @ParameterizedTest
+  @EnumSource(ResultCodec.class)
+  @DisplayName("Should survive being written and read back")
+  void shouldSerialize(ResultCodec codec) throws IOException {
+    TreeMap<Integer, Long> expected = new TreeMap<>();
+    for (int key = -300; key < 300; key += 3) {
+      expected.put(key, (long) key * key);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    EncodedCounts.encode(cursor(expected), codec).writeTo(new DataOutputStream(bytes));
+
+    EncodedCounts read =
+        EncodedCounts.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertEquals(codec, read.getCodec());
+    assertEquals(expected, decode(read));
+  }
+
+  private static TreeMap<Integer, Long> decode(EncodedCounts encoded) throws IOException {
+    TreeMap<Integer, Long> decoded = new TreeMap<>();
+    try (KeyCountCursor cursor = encoded.open()) {
+      while (cursor.next()) {
+        assertNull(decoded.put(cursor.key(), cursor.count()), "Duplicate key " + cursor.key());
+      }
+    }
+    return decoded;
+  }
+
+  private static KeyCountCursor cursor(TreeMap<Integer, Long> entries) {
+    return cursor(
+        entries.keySet().stream().mapToInt(Integer::intValue).toArray(),
+        entries.values().stream().mapToLong(Long::longValue).toArray());
+  }
+
+  private static KeyCountCursor cursor(int[] keys, long[] counts) {
+    return new KeyCountCursor() {
+      private int index = -1;
+
+      @Override
+      public boolean next() {
+        return ++index < keys.length;
+      }
+
+      @Override
+      public int key() {
+        return keys[index];
+      }
+
+      @Override
+      public long count() {
+        return counts[index];
+      }
+    };
+  }
+}
@@ -0,0 +1,71 @@
+package com.distributed.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("MappedIntFile Tests")
+class MappedIntFileTest {
+
+  @TempDir Path directory;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 7, 20})
+  @DisplayName("Should split into contiguous ranges covering every value in order")
+  void shouldSplitIntoContiguousRanges(int parts) throws IOException {
+    int[] values = {1, -2, 3, Integer.MIN_VALUE, 5, 6, Integer.MAX_VALUE, 8, 0, 10, 11};
+    Path file = write(values);
+
+    List<IntSlice> slices = MappedIntFile.split(file, parts);
+
+    assertEquals(parts, slices.size());
+    assertArrayEquals(values, concat(slices));
+  }
+
+  @Test
+  @DisplayName("Should add ranges when the file exceeds the mapping limit")
+  void shouldAddRangesBeyondMappingLimit() throws IOException {
+    int[] values = new int[100];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i * 31;
+    }
+    Path file = write(values);
+
+    List<IntSlice> slices = MappedIntFile.split(file, 2, 64);
+
+    assertEquals(7, slices.size());
+    slices.forEach(slice -> assertTrue(slice.size() * Integer.BYTES <= 64));
+    assertArrayEquals(values, concat(slices));
+  }
+
+  @Test
+  @DisplayName("Should reject files that are not whole int32 values")
+  void shouldRejectTruncatedFiles() throws IOException {
+    Path file = Files.write(directory.resolve("truncated.bin"), new byte[] {1, 2, 3, 4, 5});
+    assertThrows(IllegalArgumentException.class, () -> MappedIntFile.split(file, 2));
+  }
+
+  private Path write(int[] values) throws IOException {
+    ByteBuffer bytes =
+        ByteBuffer.allocate(values.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    bytes.asIntBuffer().put(values);
+    return Files.write(directory.resolve("values.bin"), bytes.array());
+  }
+
+  private int[] concat(List<IntSlice> slices) {
+    List<Integer> values = new ArrayList<>();
+    slices.forEach(slice -> slice.forEach(values::add));
+    return values.stream().mapToInt(Integer::intValue).toArray();
+  }
+}
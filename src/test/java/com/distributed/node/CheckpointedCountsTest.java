@@ -0,0 +1,89 @@
+package com.distributed.node;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.util.IntCountTable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Checkpointed Counts Tests")
+class CheckpointedCountsTest {
+
+  @Test
+  @DisplayName("Should keep counting while a snapshot is written and save only what came before")
+  void shouldCountDuringSnapshot(@TempDir Path directory) throws Exception {
+    CheckpointedCounts counts = new CheckpointedCounts();
+    for (int key = 0; key < 1_000; key++) {
+      counts.delta().add(key, key + 1);
+    }
+    CountDownLatch release = new CountDownLatch(1);
+    Executor gated =
+        task ->
+            ForkJoinPool.commonPool()
+                .execute(
+                    () -> {
+                      try {
+                        release.await();
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      task.run();
+                    });
+    Path file = directory.resolve("node-0.ckpt");
+
+    CompletableFuture<Void> snapshot = counts.snapshot(file, 1_000, gated);
+    assertTrue(counts.isSnapshotting());
+    assertThrows(IllegalStateException.class, () -> counts.snapshot(file, 2_000, gated));
+    counts.delta().add(5, 100);
+    counts.delta().add(-1, 7);
+    assertEquals(106, counts.get(5));
+    IntCountTable touched = new IntCountTable();
+    touched.add(5, 1);
+    touched.add(-1, 1);
+    assertEquals(Map.of(5, 106L, -1, 7L), totals(counts, touched));
+    release.countDown();
+    snapshot.join();
+
+    assertFalse(counts.isSnapshotting());
+    assertEquals(106, counts.get(5));
+    assertEquals(7, counts.get(-1));
+    assertEquals(Map.of(5, 106L, -1, 7L), totals(counts, touched));
+    assertEquals(1_000, CheckpointedCounts.readOffset(file));
+    Map<Integer, Long> restored = new HashMap<>();
+    CheckpointedCounts.restore(file).forEachRestored(restored::put);
+    assertEquals(1_000, restored.size());
+    assertEquals(6L, restored.get(5));
+    assertNull(restored.get(-1));
+  }
+
+  @Test
+  @DisplayName("Should merge successive snapshots into the base")
+  void shouldMergeSuccessiveSnapshots(@TempDir Path directory) throws IOException {
+    CheckpointedCounts counts = new CheckpointedCounts();
+    Executor direct = Runnable::run;
+    counts.delta().add(1, 2);
+    counts.snapshot(directory.resolve("a"), 2, direct).join();
+    counts.delta().add(1, 3);
+    counts.delta().add(2, 1);
+    counts.snapshot(directory.resolve("b"), 6, direct).join();
+
+    Map<Integer, Long> restored = new HashMap<>();
+    CheckpointedCounts.restore(directory.resolve("b")).forEachRestored(restored::put);
+    assertEquals(Map.of(1, 5L, 2, 1L), restored);
+  }
+
+  private static Map<Integer, Long> totals(CheckpointedCounts counts, IntCountTable keys) {
+    Map<Integer, Long> totals = new HashMap<>();
+    counts.forEachTotal(keys, totals::put);
+    return totals;
+  }
+}
@@ -0,0 +1,431 @@
+package com.distributed.node;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.coordinator.Coordinator;
+import com.distributed.coordinator.CoordinatorConfig;
+import com.distributed.coordinator.MergeProtocol;
+import com.distributed.model.DataPartition;
+import com.distributed.model.DelimitedText;
+import com.distributed.model.FileRange;
+import com.distributed.model.InputFormat;
+import com.distributed.model.ProcessingResult;
+import com.distributed.model.ResultCodec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Node Server Tests")
+class NodeServerTest {
+  private static final long MEMORY_THRESHOLD = 1024 * 1024;
+
+  private final List<NodeServer> servers = new ArrayList<>();
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    for (NodeServer server : servers) {
+      server.close();
+    }
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("Should return the same counts as a local node")
+  void shouldMatchLocalNode() {
+    RemoteProcessingNode remote = remoteNode(1, MEMORY_THRESHOLD, null);
+    List<Integer> data = new Random(42).ints(20_000, -500, 500).boxed().toList();
+    DataPartition partition = partition(data);
+
+    ProcessingResult result = remote.processData(partition).join();
+
+    assertEquals(1, result.getNodeId());
+    assertFalse(result.isSpilled());
+    assertEquals(frequencies(data), result.getFrequencies());
+  }
+
+  @Test
+  @DisplayName("Should return the same counts with deflated results")
+  void shouldMatchLocalNodeWithDeflate() {
+    NodeServer server = startServer(new ProcessingNode(6, MEMORY_THRESHOLD));
+    RemoteProcessingNode remote =
+        new RemoteProcessingNode(
+            6, server.getAddress(), MEMORY_THRESHOLD, null, executor, ResultCodec.DEFLATE, 0);
+    List<Integer> data = new Random(5).ints(20_000, 0, 2_000).boxed().toList();
+
+    ProcessingResult result = remote.processData(partition(data)).join();
+
+    assertEquals(ResultCodec.DEFLATE, result.getEncoded().getCodec());
+    assertEquals(frequencies(data), result.getFrequencies());
+  }
+
+  @Test
+  @DisplayName("Should keep extreme keys and report only top candidates when asked")
+  void shouldHandleExtremeKeysAndCandidateLimit() {
+    RemoteProcessingNode remote = remoteNode(2, MEMORY_THRESHOLD, null);
+    List<Integer> data =
+        List.of(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0, 0, -1, 7);
+
+    assertEquals(frequencies(data), remote.processData(partition(data)).join().getFrequencies());
+    assertEquals(
+        Map.of(0, 3, Integer.MIN_VALUE, 2),
+        remote.processData(partition(data), 2).join().getFrequencies());
+  }
+
+  @Test
+  @DisplayName("Should send text partitions for the server to parse")
+  void shouldProcessTextPartitions() {
+    RemoteProcessingNode remote = remoteNode(3, MEMORY_THRESHOLD, null);
+    DataPartition partition = new DataPartition();
+    partition.setNodeId(3);
+    partition.setText(
+        DelimitedText.of(ByteBuffer.wrap("4, 5 -6\n4,4\n".getBytes(StandardCharsets.US_ASCII))));
+
+    assertEquals(Map.of(4, 3, 5, 1, -6, 1), remote.processData(partition).join().getFrequencies());
+  }
+
+  @Test
+  @DisplayName("Should spill a large result to disk as it arrives")
+  void shouldSpillLargeResults(@TempDir Path spillDirectory) {
+    RemoteProcessingNode remote = remoteNode(4, 4 * 1024, spillDirectory);
+    List<Integer> data = new Random(7).ints(50_000, 0, 5_000).boxed().toList();
+
+    ProcessingResult result = remote.processData(partition(data)).join();
+
+    assertTrue(result.isSpilled());
+    assertEquals(frequencies(data), result.getFrequencies());
+    result.getSpilledRun().delete();
+  }
+
+  @Test
+  @DisplayName("Should fail the future when the server cannot be reached")
+  void shouldFailWhenServerIsDown() throws IOException {
+    RemoteProcessingNode remote = remoteNode(5, MEMORY_THRESHOLD, null);
+    servers.get(0).close();
+
+    CompletionException error =
+        assertThrows(
+            CompletionException.class, () -> remote.processData(partition(List.of(1))).join());
+    assertInstanceOf(IOException.class, error.getCause().getCause());
+  }
+
+  @Test
+  @DisplayName("Should find the same kth frequent element as in-process nodes")
+  void shouldMatchLocalCoordinator() throws IOException {
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      addresses.add(startServer(new ProcessingNode(i, MEMORY_THRESHOLD)).getAddress());
+    }
+    Random random = new Random(11);
+    int[] data = new int[30_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (int) Math.abs(random.nextGaussian() * 300);
+    }
+
+    try (Coordinator local = new Coordinator(3, MEMORY_THRESHOLD);
+        Coordinator remote =
+            new Coordinator(
+                CoordinatorConfig.builder()
+                    .memoryThresholdPerNode(MEMORY_THRESHOLD)
+                    .remoteNodes(addresses)
+                    .resultCodec(ResultCodec.DEFLATE)
+                    .build())) {
+      for (int k : new int[] {1, 5, 50}) {
+        assertEquals(local.findKthFrequent(data, k), remote.findKthFrequent(data, k));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should answer threshold top-k rounds from counts held on the server")
+  void shouldRunParticipantRemotely() {
+    RemoteProcessingNode remote = remoteNode(7, MEMORY_THRESHOLD, null);
+    List<Integer> data = List.of(1, 1, 1, 2, 2, 3, 3, -4, -4, -4, -4, 5);
+
+    try (TopKParticipant participant = remote.openParticipant(partition(data)).join()) {
+      assertEquals(Map.of(-4, 4, 1, 3), participant.localTopK(2).join().asMap());
+      assertEquals(Map.of(2, 2, 3, 2), participant.atLeast(2).join().asMap());
+      assertEquals(Map.of(5, 1, -4, 4), participant.countsOf(new int[] {5, -4, 99}).join().asMap());
+    }
+  }
+
+  @Test
+  @DisplayName("Should run the threshold protocol over remote nodes")
+  void shouldRunThresholdProtocolRemotely() {
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      addresses.add(startServer(new ProcessingNode(i, MEMORY_THRESHOLD)).getAddress());
+    }
+    int[] data = new Random(13).ints(30_000, 0, 1_000).map(v -> v * v / 1_000).toArray();
+
+    try (Coordinator local = new Coordinator(3, MEMORY_THRESHOLD);
+        Coordinator remote =
+            new Coordinator(
+                CoordinatorConfig.builder()
+                    .memoryThresholdPerNode(MEMORY_THRESHOLD)
+                    .remoteNodes(addresses)
+                    .mergeProtocol(MergeProtocol.THRESHOLD_TOP_K)
+                    .build())) {
+      for (int k : new int[] {1, 10, 100}) {
+        assertEquals(local.findKthFrequent(data, k), remote.findKthFrequent(data, k));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should reject operations remote nodes cannot run before doing any work")
+  void shouldRejectLocalOnlyOperations() {
+    List<InetSocketAddress> addresses =
+        List.of(startServer(new ProcessingNode(0, MEMORY_THRESHOLD)).getAddress());
+    CoordinatorConfig config =
+        CoordinatorConfig.builder()
+            .memoryThresholdPerNode(MEMORY_THRESHOLD)
+            .remoteNodes(addresses)
+            .build();
+
+    try (Coordinator remote = new Coordinator(config)) {
+      assertThrows(
+          UnsupportedOperationException.class,
+          () -> remote.findKthFrequentApproximate(new int[] {1, 2}, 1));
+      assertThrows(UnsupportedOperationException.class, () -> remote.openSession(5));
+    }
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new Coordinator(config.toBuilder().workUnitBytes(1024).build()));
+  }
+
+  @Test
+  @DisplayName("Should count files the nodes map from their own data roots")
+  void shouldReadFilesFromNodeDataRoots(@TempDir Path directory) throws IOException {
+    Path rootA = Files.createDirectories(directory.resolve("a"));
+    Path rootB = Files.createDirectories(directory.resolve("b"));
+    Random random = new Random(17);
+    int[] ints = random.ints(20_000, 0, 400).map(v -> v * v / 400).toArray();
+    ByteBuffer bytes = ByteBuffer.allocate(ints.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+    bytes.asIntBuffer().put(ints);
+    Files.write(rootA.resolve("ints.bin"), bytes.array());
+    Files.write(rootB.resolve("ints.bin"), bytes.array());
+    String text =
+        random
+            .ints(20_000, 0, 300)
+            .map(v -> v * v / 300)
+            .mapToObj(String::valueOf)
+            .collect(Collectors.joining(","));
+    Files.writeString(rootB.resolve("values.txt"), text, StandardCharsets.US_ASCII);
+
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    List<Path> roots = List.of(rootA, rootB);
+    for (int i = 0; i < 2; i++) {
+      addresses.add(
+          startServer(new ProcessingNode(i, MEMORY_THRESHOLD), roots.get(i)).getAddress());
+    }
+    // Paths are relative to each node's root, so the coordinator could not open them itself
+    try (Coordinator local = new Coordinator(2, MEMORY_THRESHOLD);
+        Coordinator remote =
+            new Coordinator(
+                CoordinatorConfig.builder()
+                    .memoryThresholdPerNode(MEMORY_THRESHOLD)
+                    .remoteNodes(addresses)
+                    .build())) {
+      for (int k : new int[] {1, 20}) {
+        assertEquals(
+            local.findKthFrequent(rootA.resolve("ints.bin"), k),
+            remote.findKthFrequent(Path.of("ints.bin"), k));
+        assertEquals(
+            local.findKthFrequent(rootB.resolve("values.txt"), InputFormat.DELIMITED_TEXT, k),
+            remote.findKthFrequent(Path.of("values.txt"), InputFormat.DELIMITED_TEXT, k));
+      }
+      assertThrows(
+          IllegalArgumentException.class, () -> remote.findKthFrequent(Path.of("missing.bin"), 1));
+    }
+  }
+
+  @Test
+  @DisplayName("Should refuse file requests outside the server's data root")
+  void shouldRefusePathsOutsideDataRoot(@TempDir Path directory) throws IOException {
+    Path root = Files.createDirectories(directory.resolve("root"));
+    Path secret = directory.resolve("secret.bin");
+    Files.write(secret, new byte[64]);
+    Files.write(root.resolve("ints.bin"), new byte[64]);
+    Files.createSymbolicLink(root.resolve("link.bin"), secret);
+    NodeServer server = startServer(new ProcessingNode(0, MEMORY_THRESHOLD), root);
+    RemoteProcessingNode node =
+        new RemoteProcessingNode(0, server.getAddress(), MEMORY_THRESHOLD, null, executor);
+
+    assertEquals(64, node.fileSize(Path.of("ints.bin")).join());
+    assertEquals(-1, node.fileSize(Path.of("missing.bin")).join());
+    for (String path : List.of("../secret.bin", "sub/../../secret.bin", "link.bin")) {
+      assertThrows(CompletionException.class, () -> node.fileSize(Path.of(path)).join());
+      assertThrows(CompletionException.class, () -> node.processData(fileRange(path), 0).join());
+    }
+    assertThrows(CompletionException.class, () -> node.fileSize(secret).join());
+    assertThrows(
+        CompletionException.class, () -> node.processData(fileRange(secret.toString()), 0).join());
+
+    NodeServer rootless = startServer(new ProcessingNode(1, MEMORY_THRESHOLD));
+    RemoteProcessingNode refusing =
+        new RemoteProcessingNode(1, rootless.getAddress(), MEMORY_THRESHOLD, null, executor);
+    assertThrows(CompletionException.class, () -> refusing.fileSize(Path.of("ints.bin")).join());
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new Coordinator(
+                CoordinatorConfig.builder()
+                    .memoryThresholdPerNode(MEMORY_THRESHOLD)
+                    .remoteNodes(List.of(server.getAddress()))
+                    .nodeDataRoots(List.of(root))
+                    .build()));
+  }
+
+  @Test
+  @DisplayName("Should give up on a server that accepts but never replies")
+  void shouldReleaseWorkersFromHungServer() throws Exception {
+    List<Socket> accepted = new CopyOnWriteArrayList<>();
+    try (ServerSocket hung = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      Thread.ofVirtual()
+          .start(
+              () -> {
+                try {
+                  while (true) {
+                    accepted.add(hung.accept());
+                  }
+                } catch (IOException e) {
+                  // Closed by the test
+                }
+              });
+      InetSocketAddress healthy = startServer(new ProcessingNode(1, MEMORY_THRESHOLD)).getAddress();
+      int[] data = new Random(23).ints(20_000, 0, 1_000).toArray();
+
+      // Fork/join workers run the socket I/O, so a read that never returned would pin one for good
+      try (Coordinator local = new Coordinator(2, MEMORY_THRESHOLD);
+          Coordinator remote =
+              new Coordinator(
+                  CoordinatorConfig.builder()
+                      .memoryThresholdPerNode(MEMORY_THRESHOLD)
+                      .remoteNodes(
+                          List.of((InetSocketAddress) hung.getLocalSocketAddress(), healthy))
+                      .executorThreads(2)
+                      .nodeTimeoutMs(1_000)
+                      .maxAttempts(3)
+                      .build())) {
+        int expected = local.findKthFrequent(data, 3);
+        assertTimeoutPreemptively(
+            Duration.ofSeconds(10), () -> assertEquals(expected, remote.findKthFrequent(data, 3)));
+      }
+
+      assertFalse(accepted.isEmpty());
+      for (Socket socket : accepted) {
+        try (socket) {
+          socket.setSoTimeout(5_000);
+          InputStream in = socket.getInputStream();
+          // The request is unread; skip it and expect the client's worker to have hung up
+          while (in.read() != -1) {}
+        }
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should delete spilled results when another node in their aggregation group fails")
+  void shouldCleanUpSpillsWhenGroupFails() throws IOException {
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      addresses.add(startServer(new ProcessingNode(i, MEMORY_THRESHOLD)).getAddress());
+    }
+    servers.get(1).close();
+    Path tmp = Path.of(System.getProperty("java.io.tmpdir"));
+    List<Path> before = remoteSpills(tmp);
+
+    try (Coordinator remote =
+        new Coordinator(
+            CoordinatorConfig.builder()
+                .memoryThresholdPerNode(1024)
+                .remoteNodes(addresses)
+                .aggregationFanIn(2)
+                .build())) {
+      int[] data = new Random(19).ints(20_000, 0, 5_000).toArray();
+      assertThrows(RuntimeException.class, () -> remote.findKthFrequent(data, 1));
+    }
+
+    assertEquals(before, remoteSpills(tmp));
+  }
+
+  private static List<Path> remoteSpills(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().startsWith("kth-remote-"))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private RemoteProcessingNode remoteNode(int nodeId, long memoryThreshold, Path spillDirectory) {
+    NodeServer server = startServer(new ProcessingNode(nodeId, MEMORY_THRESHOLD));
+    return new RemoteProcessingNode(
+        nodeId, server.getAddress(), memoryThreshold, spillDirectory, executor);
+  }
+
+  private NodeServer startServer(ProcessingNode node) {
+    return startServer(node, null);
+  }
+
+  private NodeServer startServer(ProcessingNode node, Path dataRoot) {
+    try {
+      NodeServer server =
+          NodeServer.start(
+              node, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), dataRoot);
+      servers.add(server);
+      return server;
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static DataPartition partition(List<Integer> data) {
+    DataPartition partition = new DataPartition();
+    partition.setData(data);
+    return partition;
+  }
+
+  private static DataPartition fileRange(String path) {
+    DataPartition partition = new DataPartition();
+    partition.setFileRange(new FileRange(path, 0, 64, InputFormat.INT32_LE));
+    return partition;
+  }
+
+  private static Map<Integer, Integer> frequencies(List<Integer> data) {
+    Map<Integer, Integer> expected = new HashMap<>();
+    data.forEach(value -> expected.merge(value, 1, Integer::sum));
+    return expected;
+  }
+}
@@ -3,21 +3,33 @@ package com.distributed.node;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.distributed.model.DataPartition;
+import com.distributed.model.IntSlice;
 import com.distributed.model.ProcessingResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 @DisplayName("Processing Node Tests")
 class ProcessingNodeTest {
@@ -60,6 +72,26 @@ class ProcessingNodeTest {
       assertEquals(1, result.getFrequencies().size());
       assertEquals(1, result.getFrequencies().get(5));
     }
+
+    @Test
+    @DisplayName("Should run on the executor it was given")
+    void shouldRunOnGivenExecutor() throws ExecutionException, InterruptedException {
+      AtomicInteger submitted = new AtomicInteger();
+      Executor executor =
+          task -> {
+            submitted.incrementAndGet();
+            task.run();
+          };
+      ProcessingNode pinnedNode = new ProcessingNode(1, DEFAULT_MEMORY_THRESHOLD, null, executor);
+      DataPartition partition = new DataPartition();
+      partition.setNodeId(1);
+      partition.setData(Arrays.asList(5, 5, 7));
+
+      ProcessingResult result = pinnedNode.processData(partition).get();
+
+      assertEquals(Map.of(5, 2, 7, 1), result.getFrequencies());
+      assertEquals(1, submitted.get());
+    }
   }
 
   @Nested
@@ -100,6 +132,138 @@ class ProcessingNodeTest {
     }
   }
 
+  @Nested
+  @DisplayName("Candidate Limit Tests")
+  class CandidateLimitTests {
+    @Test
+    @DisplayName("Should report only the local top candidates")
+    void shouldReportOnlyTopCandidates() throws ExecutionException, InterruptedException {
+      DataPartition partition = new DataPartition();
+      partition.setNodeId(1);
+      partition.setData(Arrays.asList(4, 4, 4, 2, 2, 3, 3, 1));
+
+      ProcessingResult result = node.processData(partition, 2).get();
+
+      assertEquals(Map.of(4, 3, 2, 2), result.getFrequencies());
+    }
+
+    @Test
+    @DisplayName("Should count every pulled work unit into one result")
+    void shouldCountPulledUnits() throws ExecutionException, InterruptedException {
+      Deque<DataPartition> units = new ArrayDeque<>();
+      for (List<Integer> values : List.of(List.of(1, 2), List.of(2, 3), List.of(2))) {
+        DataPartition unit = new DataPartition();
+        unit.setNodeId(7);
+        unit.setData(values);
+        units.add(unit);
+      }
+
+      ProcessingResult result = node.processUnits(units::poll).get();
+
+      assertEquals(1, result.getNodeId());
+      assertEquals(Map.of(1, 1, 2, 3, 3, 1), result.getFrequencies());
+      assertTrue(units.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep everything when below the candidate limit")
+    void shouldKeepEverythingBelowLimit() throws ExecutionException, InterruptedException {
+      DataPartition partition = new DataPartition();
+      partition.setNodeId(1);
+      partition.setData(Arrays.asList(1, 2, 2));
+
+      ProcessingResult result = node.processData(partition, 5).get();
+
+      assertEquals(Map.of(1, 1, 2, 2), result.getFrequencies());
+    }
+  }
+
+  @Nested
+  @DisplayName("Parallel Counting Tests")
+  class ParallelCountingTests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 1_000, 100_000, 1_000_000})
+    @DisplayName("Should count exactly across fork/join split thresholds")
+    void shouldCountExactlyAcrossSplitThresholds(int splitThreshold)
+        throws ExecutionException, InterruptedException {
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+        ProcessingNode parallelNode =
+            new ProcessingNode(1, DEFAULT_MEMORY_THRESHOLD, null, pool, pool, splitThreshold);
+        List<Integer> data = new Random(42).ints(200_000, -3_000, 3_000).boxed().toList();
+        Map<Integer, Integer> expected = new HashMap<>();
+        data.forEach(value -> expected.merge(value, 1, Integer::sum));
+        DataPartition partition = new DataPartition();
+        partition.setNodeId(1);
+        partition.setData(data);
+
+        assertEquals(expected, parallelNode.processData(partition).get().getFrequencies());
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    @Test
+    @DisplayName("Should fall back to spilling when merging leaf tables exceeds memory")
+    void shouldFallBackWhenMergeExceedsMemory(@TempDir Path spillDirectory)
+        throws ExecutionException, InterruptedException {
+      ForkJoinPool pool = new ForkJoinPool(2);
+      try {
+        ProcessingNode parallelNode =
+            new ProcessingNode(1, 20_000, spillDirectory, pool, pool, 1_000);
+        // Both halves' 600-key tables fit, but growing one to hold all 1,000 keys does not
+        int[] values = new int[2_000];
+        for (int i = 0; i < 1_000; i++) {
+          values[i] = i % 600;
+          values[1_000 + i] = 400 + i % 600;
+        }
+        IntSlice data = IntSlice.of(values);
+        assertNull(new ParallelCounter(data, 1_000, 20_000).invoke());
+        Map<Integer, Integer> expected = new HashMap<>();
+        data.forEach(value -> expected.merge(value, 1, Integer::sum));
+        DataPartition partition = new DataPartition();
+        partition.setNodeId(1);
+        partition.setData(data);
+
+        ProcessingResult result = parallelNode.processData(partition).get();
+
+        assertEquals(1_000, expected.size());
+        assertEquals(expected, result.getFrequencies());
+        if (result.isSpilled()) {
+          result.getSpilledRun().delete();
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+
+    @Test
+    @DisplayName("Should fall back to spilling when parallel tables exceed memory")
+    void shouldFallBackToSpilling(@TempDir Path spillDirectory)
+        throws ExecutionException, InterruptedException {
+      ForkJoinPool pool = new ForkJoinPool(4);
+      try {
+        ProcessingNode parallelNode =
+            new ProcessingNode(1, 16 * 1024, spillDirectory, pool, pool, 1_000);
+        List<Integer> data = new Random(42).ints(50_000, 0, 20_000).boxed().toList();
+        Map<Integer, Integer> expected = new HashMap<>();
+        data.forEach(value -> expected.merge(value, 1, Integer::sum));
+        DataPartition partition = new DataPartition();
+        partition.setNodeId(1);
+        partition.setData(data);
+
+        ProcessingResult result = parallelNode.processData(partition).get();
+
+        assertTrue(result.isSpilled());
+        assertEquals(expected, result.getFrequencies());
+        result.getSpilledRun().delete();
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
   @Nested
   @DisplayName("Memory Management Tests")
   class MemoryManagementTests {
@@ -124,6 +288,29 @@ class ProcessingNodeTest {
       result.getFrequencies().values().forEach(freq -> assertTrue(freq > 1));
     }
 
+    @Test
+    @DisplayName("Should spill to disk and still count exactly")
+    void shouldSpillAndCountExactly(@TempDir Path spillDirectory)
+        throws ExecutionException, InterruptedException, IOException {
+      ProcessingNode spillingNode = new ProcessingNode(1, 4 * 1024, spillDirectory);
+      Random random = new Random(42);
+      List<Integer> data = random.ints(50_000, 0, 5_000).boxed().toList();
+      Map<Integer, Integer> expected = new HashMap<>();
+      data.forEach(value -> expected.merge(value, 1, Integer::sum));
+
+      DataPartition partition = new DataPartition();
+      partition.setNodeId(1);
+      partition.setData(data);
+      ProcessingResult result = spillingNode.processData(partition).get();
+
+      assertTrue(result.isSpilled());
+      assertEquals(expected, result.getFrequencies());
+      try (Stream<Path> files = Files.list(spillDirectory)) {
+        assertEquals(List.of(result.getSpilledRun().getPath()), files.toList());
+      }
+      result.getSpilledRun().delete();
+    }
+
     private List<Integer> generateLargeDataset(int size) {
       return Stream.generate(() -> (int) (Math.random() * 100))
           .limit(size)
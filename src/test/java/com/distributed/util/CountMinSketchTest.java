@@ -0,0 +1,99 @@
+package com.distributed.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Count-Min Sketch Tests")
+class CountMinSketchTest {
+  private static final long SEED = 42;
+
+  @Test
+  @DisplayName("Should never undercount and stay within the error bound")
+  void shouldStayWithinErrorBound() {
+    CountMinSketch sketch = new CountMinSketch(5, 1024, SEED);
+    Map<Integer, Long> exact = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      int key = random.nextInt(20_000);
+      sketch.add(key, 1);
+      exact.merge(key, 1L, Long::sum);
+    }
+
+    long bound = sketch.errorBound();
+    long violations =
+        exact.entrySet().stream()
+            .filter(
+                entry -> {
+                  long estimate = sketch.estimate(entry.getKey());
+                  assertTrue(estimate >= entry.getValue(), "Sketch must never undercount");
+                  return estimate - entry.getValue() > bound;
+                })
+            .count();
+    assertTrue(violations <= exact.size() * (1 - sketch.confidence()) * 2 + 1);
+    assertEquals(100_000, sketch.totalCount());
+  }
+
+  @Test
+  @DisplayName("Merged sketches should equal a sketch of the combined stream")
+  void mergeShouldEqualCombinedStream() {
+    CountMinSketch left = new CountMinSketch(4, 256, SEED);
+    CountMinSketch right = new CountMinSketch(4, 256, SEED);
+    CountMinSketch combined = new CountMinSketch(4, 256, SEED);
+    Random random = new Random(7);
+    for (int i = 0; i < 10_000; i++) {
+      int key = random.nextInt(1_000) - 500;
+      (i % 2 == 0 ? left : right).add(key, 1);
+      combined.add(key, 1);
+    }
+
+    CountMinSketch merged = left.copy();
+    merged.merge(right);
+
+    assertEquals(combined, merged);
+  }
+
+  @Test
+  @DisplayName("Should size itself from a memory budget")
+  void shouldSizeFromMemoryBudget() {
+    CountMinSketch sketch = CountMinSketch.withMemoryBudget(1024 * 1024, 5, SEED);
+
+    assertTrue(sketch.estimatedBytes() <= 1024 * 1024);
+    assertTrue(sketch.estimatedBytes() > 512 * 1024);
+    assertEquals(64, CountMinSketch.withMemoryBudget(-1, 5, SEED).width());
+  }
+
+  @Test
+  @DisplayName("Should refuse to merge incompatible sketches")
+  void shouldRefuseIncompatibleMerge() {
+    CountMinSketch sketch = new CountMinSketch(4, 256, SEED);
+    assertThrows(
+        IllegalArgumentException.class, () -> sketch.merge(new CountMinSketch(4, 512, SEED)));
+    assertThrows(
+        IllegalArgumentException.class, () -> sketch.merge(new CountMinSketch(4, 256, SEED + 1)));
+  }
+
+  @Test
+  @DisplayName("Heavy hitters should retain the most frequent keys")
+  void heavyHittersShouldRetainTopKeys() {
+    HeavyHitters heavyHitters = new HeavyHitters(3);
+    IntLongCountTable exact = new IntLongCountTable();
+    Random random = new Random(42);
+    for (int i = 0; i < 50_000; i++) {
+      // Keys 0..2 are heavy, the rest is a long uniform tail
+      int key = random.nextInt(4) == 0 ? random.nextInt(3) : 3 + random.nextInt(10_000);
+      exact.increment(key);
+      heavyHitters.offer(key, exact.get(key));
+    }
+
+    IntLongCountTable candidates = heavyHitters.candidates();
+    assertEquals(3, candidates.size());
+    for (int key = 0; key < 3; key++) {
+      assertEquals(exact.get(key), candidates.get(key));
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.distributed.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.FrequencyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Frequency Rank Index Tests")
+class FrequencyRankIndexTest {
+
+  @Test
+  @DisplayName("Should match a full sort under random updates, including removals")
+  void shouldMatchFullSortUnderUpdates() {
+    Random random = new Random(42);
+    FrequencyRankIndex index = new FrequencyRankIndex();
+    IntLongCountTable expected = new IntLongCountTable();
+    for (int round = 0; round < 20; round++) {
+      for (int i = 0; i < 500; i++) {
+        // Few distinct counts so that most keys share a bucket with others
+        int key = random.nextInt(400) - 200;
+        long delta = random.nextInt(4) == 0 ? -expected.get(key) : random.nextInt(3);
+        index.add(key, delta);
+        expected.add(key, delta);
+        if (expected.get(key) == 0) {
+          expected.remove(key);
+        }
+      }
+      List<FrequencyPair> sorted = sort(expected);
+
+      assertEquals(sorted.size(), index.size());
+      assertEquals(sorted, index.range(1, sorted.size() + 10));
+      for (int rank = 1; rank <= sorted.size(); rank++) {
+        assertEquals(sorted.get(rank - 1), index.kth(rank));
+        assertEquals(rank, index.rankOf(sorted.get(rank - 1).getNumber()));
+      }
+      assertNull(index.kth(sorted.size() + 1));
+    }
+  }
+
+  @Test
+  @DisplayName("Should return partial ranges across bucket boundaries")
+  void shouldReturnPartialRanges() {
+    FrequencyRankIndex index = new FrequencyRankIndex();
+    int[] keys = {5, 3, 9, 1, 7, 0};
+    long[] counts = {4, 4, 2, 2, 2, 1};
+    for (int i = 0; i < keys.length; i++) {
+      index.set(keys[i], counts[i]);
+    }
+    index.prepare();
+
+    assertEquals(
+        List.of(new FrequencyPair(5, 4), new FrequencyPair(1, 2), new FrequencyPair(7, 2)),
+        index.range(2, 4));
+    assertEquals(List.of(new FrequencyPair(0, 1)), index.range(6, 100));
+    assertTrue(index.range(7, 8).isEmpty());
+    assertEquals(-1, index.rankOf(42));
+  }
+
+  @Test
+  @DisplayName("Should reject negative counts and invalid ranks")
+  void shouldRejectInvalidInput() {
+    FrequencyRankIndex index = new FrequencyRankIndex();
+    index.add(1, 2);
+
+    assertThrows(IllegalArgumentException.class, () -> index.add(1, -3));
+    assertThrows(IllegalArgumentException.class, () -> index.kth(0));
+    assertThrows(IllegalArgumentException.class, () -> index.range(2, 1));
+    assertEquals(2, index.count(1));
+  }
+
+  @Test
+  @DisplayName("Should count the bucket tree in its size estimate")
+  void shouldCountBucketOverhead() {
+    FrequencyRankIndex sameCount = new FrequencyRankIndex();
+    FrequencyRankIndex distinctCounts = new FrequencyRankIndex();
+    for (int key = 0; key < 1_000; key++) {
+      sameCount.set(key, 1);
+      distinctCounts.set(key, key + 1);
+    }
+    sameCount.prepare();
+    distinctCounts.prepare();
+
+    // Each extra bucket costs at least its tree entry, boxed count and bucket object
+    assertTrue(distinctCounts.estimatedBytes() - sameCount.estimatedBytes() > 999 * 96);
+  }
+
+  private static List<FrequencyPair> sort(IntLongCountTable counts) {
+    List<FrequencyPair> pairs = new ArrayList<>();
+    counts.forEach((key, count) -> pairs.add(new FrequencyPair(key, count)));
+    pairs.sort(null);
+    return pairs;
+  }
+}
@@ -0,0 +1,206 @@
+package com.distributed.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Count Table Tests")
+class IntCountTableTest {
+
+  @Nested
+  @DisplayName("Int Count Table Tests")
+  class IntTableTests {
+
+    @Test
+    @DisplayName("Should count repeated keys including zero and negatives")
+    void shouldCountRepeatedKeys() {
+      IntCountTable table = new IntCountTable();
+      int[] data = {0, 5, -3, 5, 0, 5, Integer.MIN_VALUE, Integer.MAX_VALUE};
+      for (int value : data) {
+        table.increment(value);
+      }
+
+      assertEquals(5, table.size());
+      assertEquals(2, table.get(0));
+      assertEquals(3, table.get(5));
+      assertEquals(1, table.get(-3));
+      assertEquals(1, table.get(Integer.MIN_VALUE));
+      assertEquals(1, table.get(Integer.MAX_VALUE));
+      assertEquals(0, table.get(42));
+      assertFalse(table.containsKey(42));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 7, 100, 10_000})
+    @DisplayName("Should match a HashMap after growing from any initial size")
+    void shouldMatchHashMapAfterGrowth(int expectedSize) {
+      IntCountTable table = new IntCountTable(expectedSize);
+      Map<Integer, Integer> expected = new HashMap<>();
+      Random random = new Random(42);
+      for (int i = 0; i < 50_000; i++) {
+        int value = random.nextInt(5_000) - 2_500;
+        table.increment(value);
+        expected.merge(value, 1, Integer::sum);
+      }
+
+      assertEquals(expected, table.asMap());
+      assertEquals(1, Integer.bitCount(table.capacity()), "Capacity should stay a power of two");
+      assertTrue(table.size() <= table.capacity() * 3 / 4);
+    }
+
+    @Test
+    @DisplayName("Should not resize when presized for the expected key count")
+    void shouldNotResizeWhenPresized() {
+      IntCountTable table = new IntCountTable(1_000);
+      int capacity = table.capacity();
+      for (int i = 1; i <= 1_000; i++) {
+        table.increment(i);
+      }
+      assertEquals(capacity, table.capacity());
+    }
+
+    @Test
+    @DisplayName("Should merge another table and clear")
+    void shouldMergeAndClear() {
+      IntCountTable left = new IntCountTable();
+      IntCountTable right = new IntCountTable();
+      left.add(1, 2);
+      left.add(0, 1);
+      right.add(1, 3);
+      right.add(2, 4);
+
+      left.addAll(right);
+
+      assertEquals(Map.of(0, 1, 1, 5, 2, 4), left.asMap());
+
+      left.clear();
+      assertTrue(left.isEmpty());
+      assertEquals(0, left.get(1));
+    }
+  }
+
+  @Nested
+  @DisplayName("Long Count Table Tests")
+  class LongTableTests {
+
+    @Test
+    @DisplayName("Should accumulate counts beyond the int range")
+    void shouldAccumulateBeyondIntRange() {
+      IntLongCountTable table = new IntLongCountTable();
+      table.add(7, Integer.MAX_VALUE);
+      table.add(7, Integer.MAX_VALUE);
+      table.add(0, 3);
+
+      assertEquals(2L * Integer.MAX_VALUE, table.get(7));
+      assertEquals(3, table.get(0));
+      assertEquals(2, table.size());
+    }
+
+    @Test
+    @DisplayName("Should remove keys without breaking probe chains")
+    void shouldRemoveKeys() {
+      IntLongCountTable table = new IntLongCountTable();
+      Map<Integer, Long> expected = new HashMap<>();
+      Random random = new Random(42);
+      for (int i = 0; i < 20_000; i++) {
+        int key = random.nextInt(2_000) - 1_000;
+        if (random.nextInt(3) == 0) {
+          assertEquals(expected.getOrDefault(key, 0L), table.remove(key));
+          expected.remove(key);
+        } else {
+          table.increment(key);
+          expected.merge(key, 1L, Long::sum);
+        }
+      }
+
+      assertEquals(expected.size(), table.size());
+      expected.forEach((key, count) -> assertEquals(count, table.get(key)));
+      table.forEach((key, count) -> assertEquals(expected.get(key), count));
+    }
+
+    @Test
+    @DisplayName("Should sum node tables into a global table")
+    void shouldSumNodeTables() {
+      IntCountTable node1 = new IntCountTable();
+      IntCountTable node2 = new IntCountTable();
+      for (int i = 0; i < 1_000; i++) {
+        node1.increment(i % 10);
+        node2.increment(i % 20);
+      }
+
+      IntLongCountTable global = new IntLongCountTable();
+      global.addAll(node1);
+      global.addAll(node2);
+
+      assertEquals(20, global.size());
+      assertEquals(150, global.get(3));
+      assertEquals(50, global.get(13));
+      long[] total = {0};
+      global.forEach((key, count) -> total[0] += count);
+      assertEquals(2_000, total[0]);
+    }
+  }
+
+  @Nested
+  @DisplayName("Striped Count Table Tests")
+  class StripedTableTests {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 64})
+    @DisplayName("Should sum tables merged concurrently from many threads")
+    void shouldSumConcurrentMerges(int stripes) throws InterruptedException {
+      StripedCountTable global = new StripedCountTable(stripes);
+      Map<Integer, Long> expected = new ConcurrentHashMap<>();
+      List<Thread> writers = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        Random random = new Random(t);
+        IntCountTable local = new IntCountTable();
+        for (int i = 0; i < 20_000; i++) {
+          int key = random.nextInt(3_000) - 1_500;
+          local.increment(key);
+          expected.merge(key, 1L, Long::sum);
+        }
+        writers.add(Thread.ofPlatform().start(() -> global.addAll(local)));
+      }
+      for (Thread writer : writers) {
+        writer.join();
+      }
+
+      assertEquals(expected.size(), global.size());
+      expected.forEach((key, count) -> assertEquals(count, global.get(key)));
+    }
+
+    @Test
+    @DisplayName("Should iterate in ascending key order through the sorted cursor")
+    void shouldIterateSorted() throws IOException {
+      StripedCountTable global = new StripedCountTable(16);
+      IntCountTable local = new IntCountTable();
+      int[] keys = {5, Integer.MIN_VALUE, 0, -7, Integer.MAX_VALUE, 42};
+      for (int i = 0; i < keys.length; i++) {
+        local.add(keys[i], i + 1);
+      }
+      global.addAll(local);
+      global.addAll(local);
+
+      List<Integer> order = new ArrayList<>();
+      try (KeyCountCursor cursor = global.sorted()) {
+        while (cursor.next()) {
+          order.add(cursor.key());
+          assertEquals(2 * local.get(cursor.key()), cursor.count());
+        }
+      }
+      assertEquals(List.of(Integer.MIN_VALUE, -7, 0, 5, 42, Integer.MAX_VALUE), order);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.distributed.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Space-Saving Summary Tests")
+class SpaceSavingSummaryTest {
+
+  @Test
+  @DisplayName("Should be exact while counters are not exhausted")
+  void shouldBeExactBelowCapacity() {
+    SpaceSavingSummary summary = new SpaceSavingSummary(10);
+    for (int value : new int[] {9, 9, 6, 9, 8, 6, 8, 6, 4}) {
+      summary.offer(value);
+    }
+
+    assertEquals(4, summary.size());
+    assertEquals(3, summary.upperBound(9));
+    assertEquals(3, summary.lowerBound(9));
+    assertEquals(1, summary.lowerBound(4));
+    assertEquals(0, summary.upperBound(42));
+  }
+
+  @Test
+  @DisplayName("Bounds should always contain the true frequency")
+  void boundsShouldContainTrueFrequency() {
+    SpaceSavingSummary summary = new SpaceSavingSummary(50);
+    Map<Integer, Long> exact = stream(summary, new Random(42), 100_000);
+
+    assertBoundsHold(summary, exact);
+  }
+
+  @Test
+  @DisplayName("Merged summaries should keep valid bounds and heavy keys")
+  void mergedSummariesShouldKeepBounds() {
+    SpaceSavingSummary left = new SpaceSavingSummary(50);
+    SpaceSavingSummary right = new SpaceSavingSummary(50);
+    Map<Integer, Long> exact = stream(left, new Random(1), 60_000);
+    stream(right, new Random(2), 40_000)
+        .forEach((key, count) -> exact.merge(key, count, Long::sum));
+
+    SpaceSavingSummary merged = SpaceSavingSummary.merge(left, right);
+
+    assertEquals(100_000, merged.totalCount());
+    assertTrue(merged.size() <= 50);
+    assertBoundsHold(merged, exact);
+    for (int heavy = 0; heavy < 3; heavy++) {
+      assertTrue(merged.lowerBound(heavy) > 0, "Heavy key " + heavy + " should be monitored");
+    }
+  }
+
+  @Test
+  @DisplayName("Merging unequal capacities should bound keys neither side monitored")
+  void mergedUnequalCapacitiesShouldKeepBounds() {
+    SpaceSavingSummary small = new SpaceSavingSummary(2);
+    SpaceSavingSummary large = new SpaceSavingSummary(10);
+    Map<Integer, Long> exact = new HashMap<>();
+    for (int value : new int[] {1, 2, 3, 3, 4, 4, 4, 5, 5, 5, 5}) {
+      small.offer(value);
+      exact.merge(value, 1L, Long::sum);
+    }
+    for (int value : new int[] {5, 6, 6, 7}) {
+      large.offer(value);
+      exact.merge(value, 1L, Long::sum);
+    }
+
+    SpaceSavingSummary merged = SpaceSavingSummary.merge(small, large);
+
+    assertTrue(merged.size() < merged.capacity(), "Merged summary should have free counters");
+    assertEquals(small.minCount(), merged.minCount());
+    assertTrue(merged.upperBound(3) >= 2, "Key 3 was evicted from the small summary");
+    assertBoundsHold(merged, exact);
+    assertBoundsHold(SpaceSavingSummary.merge(large, small), exact);
+
+    // Keys first offered after the merge may already have been seen before it
+    merged.offer(1);
+    exact.merge(1, 1L, Long::sum);
+    assertBoundsHold(merged, exact);
+  }
+
+  private static Map<Integer, Long> stream(SpaceSavingSummary summary, Random random, int n) {
+    Map<Integer, Long> exact = new HashMap<>();
+    for (int i = 0; i < n; i++) {
+      // Keys 0..2 take 60% of the stream, the rest spreads over a long tail
+      int key = random.nextInt(10) < 6 ? random.nextInt(3) : 3 + random.nextInt(5_000);
+      summary.offer(key);
+      exact.merge(key, 1L, Long::sum);
+    }
+    return exact;
+  }
+
+  private static void assertBoundsHold(SpaceSavingSummary summary, Map<Integer, Long> exact) {
+    exact.forEach(
+        (key, count) -> {
+          assertTrue(summary.lowerBound(key) <= count, "Lower bound exceeded for " + key);
+          assertTrue(summary.upperBound(key) >= count, "Upper bound undercut for " + key);
+          assertTrue(summary.upperBound(key) - count <= summary.maxError());
+        });
+  }
+}
@@ -0,0 +1,67 @@
+package com.distributed.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.distributed.model.FrequencyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Top-K Selector Tests")
+class TopKSelectorTest {
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 5, 50, 999, 1000, 5000})
+  @DisplayName("Should match a full sort including tie-breaking")
+  void shouldMatchFullSort(int k) {
+    Random random = new Random(42);
+    List<FrequencyPair> all = new ArrayList<>();
+    TopKSelector selector = new TopKSelector(k);
+    for (int key = 0; key < 1000; key++) {
+      // Few distinct counts so that most comparisons fall through to the key tie-break
+      long count = random.nextInt(10);
+      all.add(new FrequencyPair(key * 7919 % 1000, count));
+    }
+    all.forEach(pair -> selector.accept(pair.getNumber(), pair.getFrequency()));
+    all.sort(null);
+
+    List<FrequencyPair> expected = all.subList(0, Math.min(k, all.size()));
+    assertEquals(expected, selector.toSortedList());
+    if (k <= all.size()) {
+      assertTrue(selector.isFull());
+      assertEquals(all.get(k - 1).getNumber(), selector.weakestKey());
+      assertEquals(all.get(k - 1).getFrequency(), selector.weakestCount());
+    } else {
+      assertFalse(selector.isFull());
+    }
+  }
+
+  @Test
+  @DisplayName("Should select from a count table")
+  void shouldSelectFromCountTable() {
+    IntLongCountTable table = new IntLongCountTable();
+    int[] data = {9, 9, 6, 9, 8, 6, 8, 6, 4};
+    for (int value : data) {
+      table.increment(value);
+    }
+
+    TopKSelector selector = new TopKSelector(3);
+    table.forEach(selector);
+
+    assertEquals(
+        List.of(new FrequencyPair(6, 3), new FrequencyPair(9, 3), new FrequencyPair(8, 2)),
+        selector.toSortedList());
+    assertEquals(8, selector.weakestKey());
+  }
+
+  @Test
+  @DisplayName("Should reject non-positive k and empty queries")
+  void shouldRejectInvalidUse() {
+    assertThrows(IllegalArgumentException.class, () -> new TopKSelector(0));
+    assertThrows(IllegalStateException.class, () -> new TopKSelector(1).weakestKey());
+  }
+}
@@ -0,0 +1,50 @@
+package com.distributed.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Varint Tests")
+class VarintTest {
+
+  @Test
+  @DisplayName("Should round-trip unsigned and zigzag values at the edges")
+  void shouldRoundTrip() throws IOException {
+    long[] unsigned = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, 1L << 32, Long.MAX_VALUE};
+    long[] signed = {0, -1, 1, -64, 64, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE};
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    for (long value : unsigned) {
+      Varint.writeUnsigned(out, value);
+    }
+    for (long value : signed) {
+      Varint.writeSigned(out, value);
+    }
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    for (long value : unsigned) {
+      assertEquals(value, Varint.readUnsigned(in));
+    }
+    for (long value : signed) {
+      assertEquals(value, Varint.readSigned(in));
+    }
+    assertEquals(0, in.available());
+  }
+
+  @Test
+  @DisplayName("Should spend one byte on small values")
+  void shouldEncodeSmallValuesInOneByte() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    Varint.writeUnsigned(out, 127);
+    Varint.writeSigned(out, -64);
+
+    assertEquals(2, bytes.size());
+  }
+}